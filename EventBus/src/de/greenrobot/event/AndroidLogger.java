@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import android.util.Log;
+
+import java.util.logging.Level;
+
+/** Logs to Android's Log using {@link EventBus#TAG} or a given tag. */
+public class AndroidLogger implements Logger {
+    private final String tag;
+
+    /** Uses {@link EventBus#TAG}, which may be changed by apps at any time. */
+    public AndroidLogger() {
+        this(null);
+    }
+
+    public AndroidLogger(String tag) {
+        this.tag = tag;
+    }
+
+    @Override
+    public void log(Level level, String msg) {
+        log(level, msg, null);
+    }
+
+    @Override
+    public void log(Level level, String msg, Throwable th) {
+        String tag = this.tag != null ? this.tag : EventBus.TAG;
+        int value = level.intValue();
+        if (value >= Level.SEVERE.intValue()) {
+            Log.e(tag, msg, th);
+        } else if (value >= Level.WARNING.intValue()) {
+            Log.w(tag, msg, th);
+        } else if (value >= Level.INFO.intValue()) {
+            Log.i(tag, msg, th);
+        } else {
+            Log.d(tag, msg, th);
+        }
+    }
+}
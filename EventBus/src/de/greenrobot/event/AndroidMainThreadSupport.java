@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/** Uses the thread of the given Looper (typically the main Looper) as main thread. */
+public class AndroidMainThreadSupport implements MainThreadSupport {
+    private final Thread looperThread;
+    private final Handler handler;
+
+    public AndroidMainThreadSupport(Looper looper) {
+        looperThread = looper.getThread();
+        handler = new Handler(looper);
+    }
+
+    /** @return support for Android's main Looper, or null if not running on Android. */
+    static MainThreadSupport createForMainLooper() {
+        Looper mainLooper;
+        try {
+            mainLooper = Looper.getMainLooper();
+        } catch (RuntimeException e) {
+            // Stub implementations of the Android API (e.g. in local unit tests) throw
+            return null;
+        }
+        return mainLooper != null ? new AndroidMainThreadSupport(mainLooper) : null;
+    }
+
+    @Override
+    public boolean isMainThread() {
+        // Cheaper than comparing Looper.myLooper(), which does a ThreadLocal lookup
+        return looperThread == Thread.currentThread();
+    }
+
+    @Override
+    public void post(Runnable runnable) {
+        if (!handler.post(runnable)) {
+            throw new EventBusException("Could not send handler message");
+        }
+    }
+}
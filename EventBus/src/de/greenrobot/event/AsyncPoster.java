@@ -15,35 +15,41 @@
  */
 package de.greenrobot.event;
 
+import java.util.concurrent.ExecutorService;
 
 /**
  * Posts events in background.
  * 
  * @author Markus
  */
-class AsyncPoster implements Runnable {
+class AsyncPoster implements Runnable, Poster {
 
-    private final PendingPostQueue queue;
+    private final PosterQueue queue;
     private final EventBus eventBus;
+    private final ExecutorService executorService;
 
-    AsyncPoster(EventBus eventBus) {
+    AsyncPoster(EventBus eventBus, ExecutorService executorService, PosterQueue queue) {
         this.eventBus = eventBus;
-        queue = new PendingPostQueue();
+        this.executorService = executorService;
+        this.queue = queue;
     }
 
     public void enqueue(Subscription subscription, Object event) {
-        PendingPost pendingPost = PendingPost.obtainPendingPost(subscription, event);
-        queue.enqueue(pendingPost);
-        eventBus.getExecutorService().execute(this);
+        // Not pooled: async deliveries release on arbitrary, possibly short-lived threads, see PendingPost
+        PendingPost pendingPost = new PendingPost(event, subscription);
+        if (queue.enqueue(pendingPost)) {
+            executorService.execute(this);
+        }
     }
 
     @Override
     public void run() {
         PendingPost pendingPost = queue.poll();
-        if(pendingPost == null) {
-            throw new IllegalStateException("No pending post available");
+        if (pendingPost == null) {
+            // Discarded by OverflowPolicy.DropOldest
+            return;
         }
-        eventBus.invokeSubscriber(pendingPost);
+        eventBus.invokeQueuedSubscriber(pendingPost.subscription, pendingPost.event);
     }
 
 }
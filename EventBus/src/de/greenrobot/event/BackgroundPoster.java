@@ -15,59 +15,81 @@
  */
 package de.greenrobot.event;
 
-import android.util.Log;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 
 /**
  * Posts events in background.
  * 
  * @author Markus
  */
-final class BackgroundPoster implements Runnable {
+final class BackgroundPoster implements Runnable, BatchPoster {
 
-    private final PendingPostQueue queue;
+    private final PosterQueue queue;
     private final EventBus eventBus;
 
-    private volatile boolean executorRunning;
+    /** Set by the producer that starts the consumer; the queue relies on a single consumer at a time. */
+    private final AtomicBoolean executorRunning = new AtomicBoolean();
+    private final Runnable executorStarter = new Runnable() {
+        @Override
+        public void run() {
+            startExecutorIfIdle();
+        }
+    };
 
-    BackgroundPoster(EventBus eventBus) {
+    BackgroundPoster(EventBus eventBus, PosterQueue queue) {
         this.eventBus = eventBus;
-        queue = new PendingPostQueue();
+        this.queue = queue;
     }
 
     public void enqueue(Subscription subscription, Object event) {
-        PendingPost pendingPost = PendingPost.obtainPendingPost(subscription, event);
-        synchronized (this) {
-            queue.enqueue(pendingPost);
-            if (!executorRunning) {
-                executorRunning = true;
-                eventBus.getExecutorService().execute(this);
-            }
+        PendingPost pendingPost = eventBus.obtainPendingPost(subscription, event);
+        if (queue.enqueue(pendingPost)) {
+            startExecutorIfIdle();
+        }
+    }
+
+    public void enqueueAll(PendingPostQueue pendingPosts) {
+        if (queue.enqueueAll(pendingPosts, executorStarter)) {
+            startExecutorIfIdle();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void startExecutorIfIdle() {
+        if (!executorRunning.get() && executorRunning.compareAndSet(false, true)) {
+            eventBus.getExecutorService().execute(this);
         }
     }
 
     @Override
     public void run() {
+        boolean running = true;
         try {
             try {
                 while (true) {
                     PendingPost pendingPost = queue.poll(1000);
                     if (pendingPost == null) {
-                        synchronized (this) {
-                            // Check again, this time in synchronized
-                            pendingPost = queue.poll();
-                            if (pendingPost == null) {
-                                executorRunning = false;
-                                return;
-                            }
+                        executorRunning.set(false);
+                        // Check again: a producer may have enqueued while executorRunning was still set
+                        if (queue.isEmpty() || !executorRunning.compareAndSet(false, true)) {
+                            running = false;
+                            return;
                         }
+                    } else {
+                        eventBus.invokeSubscriber(pendingPost);
                     }
-                    eventBus.invokeSubscriber(pendingPost);
                 }
             } catch (InterruptedException e) {
-                Log.w("Event", Thread.currentThread().getName() + " was interruppted", e);
+                eventBus.getLogger().log(Level.WARNING, Thread.currentThread().getName() + " was interruppted", e);
             }
         } finally {
-            executorRunning = false;
+            if (running) {
+                executorRunning.set(false);
+            }
         }
     }
 
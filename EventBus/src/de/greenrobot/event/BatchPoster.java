@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+/** A poster that can take over a batch of pending posts collected by the posting thread. */
+interface BatchPoster extends Poster {
+
+    /** Enqueues all given pending posts with a single hand-off. */
+    void enqueueAll(PendingPostQueue pendingPosts);
+
+    /** Approximate number of pending posts. */
+    int getQueueDepth();
+
+}
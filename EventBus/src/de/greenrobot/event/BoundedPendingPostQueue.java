@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synchronized queue holding at most a given number of pending posts. If full, the {@link OverflowPolicy} for the
+ * event's class decides about new posts. Supports multiple consumers.
+ */
+final class BoundedPendingPostQueue implements PosterQueue {
+    private final String name;
+    private final int maxSize;
+    private final OverflowPolicy defaultPolicy;
+    private final Map<Class<?>, OverflowPolicy> policies;
+    private final AtomicLong droppedCount;
+    private final AtomicLong blockedCount;
+
+    private PendingPost head;
+    private PendingPost tail;
+    private int size;
+    private int blockedProducers;
+
+    /**
+     * @param policies      overflow policies by exact event class, may be null; not modified afterwards
+     * @param droppedCount  incremented for each discarded post
+     * @param blockedCount  incremented for each post that had to wait for room in the queue
+     */
+    BoundedPendingPostQueue(String name, int maxSize, OverflowPolicy defaultPolicy,
+                            Map<Class<?>, OverflowPolicy> policies, AtomicLong droppedCount, AtomicLong blockedCount) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Queue size must be positive: " + maxSize);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.defaultPolicy = defaultPolicy;
+        this.policies = policies;
+        this.droppedCount = droppedCount;
+        this.blockedCount = blockedCount;
+    }
+
+    public synchronized boolean enqueue(PendingPost pendingPost) {
+        return enqueue(pendingPost, null);
+    }
+
+    // Must be called in synchronized block
+    private boolean enqueue(PendingPost pendingPost, Runnable consumerStarter) {
+        if (pendingPost == null) {
+            throw new NullPointerException("null cannot be enqueued");
+        }
+        if (size >= maxSize) {
+            Class<?> eventClass = getEventClass(pendingPost.event);
+            OverflowPolicy policy = getPolicy(eventClass);
+            switch (policy) {
+                case Block:
+                    if (consumerStarter != null) {
+                        // Posts of the batch enqueued so far may be the ones filling the queue
+                        consumerStarter.run();
+                    }
+                    blockedCount.incrementAndGet();
+                    blockedProducers++;
+                    try {
+                        while (size >= maxSize) {
+                            wait();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        discard(pendingPost);
+                        return false;
+                    } finally {
+                        blockedProducers--;
+                    }
+                    break;
+                case DropNewest:
+                    discard(pendingPost);
+                    return false;
+                case DropOldest:
+                    discard(removeHead());
+                    break;
+                case Fail:
+                    discard(pendingPost);
+                    throw new EventBusException("The " + name + " queue is full (" + maxSize +
+                            " posts), cannot post event " + eventClass);
+                default:
+                    throw new IllegalStateException("Unknown overflow policy: " + policy);
+            }
+        }
+        if (tail != null) {
+            tail.next = pendingPost;
+        } else {
+            head = pendingPost;
+        }
+        tail = pendingPost;
+        size++;
+        notifyAll();
+        return true;
+    }
+
+    public synchronized boolean enqueueAll(PendingPostQueue pendingPosts, Runnable consumerStarter) {
+        boolean enqueued = false;
+        try {
+            PendingPost pendingPost;
+            while ((pendingPost = pendingPosts.poll()) != null) {
+                // Still linked to the rest of the batch, which the consumer must not see while we wait for room
+                pendingPost.next = null;
+                enqueued |= enqueue(pendingPost, consumerStarter);
+            }
+        } finally {
+            // Discard the rest of the batch if an overflow failed it
+            PendingPost pendingPost;
+            while ((pendingPost = pendingPosts.poll()) != null) {
+                discard(pendingPost);
+            }
+        }
+        return enqueued;
+    }
+
+    public synchronized PendingPost poll() {
+        PendingPost pendingPost = removeHead();
+        if (pendingPost != null && blockedProducers > 0) {
+            notifyAll();
+        }
+        return pendingPost;
+    }
+
+    public synchronized PendingPost poll(int maxMillisToWait) throws InterruptedException {
+        if (head == null) {
+            wait(maxMillisToWait);
+        }
+        return poll();
+    }
+
+    public synchronized boolean isEmpty() {
+        return head == null;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** @param pendingEvent the event, or a conflation slot or tracked delivery holding it */
+    private static Class<?> getEventClass(Object pendingEvent) {
+        if (pendingEvent instanceof PostTracker.Delivery) {
+            pendingEvent = ((PostTracker.Delivery) pendingEvent).event;
+        }
+        return ConflationSlot.getEventClass(pendingEvent);
+    }
+
+    private OverflowPolicy getPolicy(Class<?> eventClass) {
+        if (policies != null) {
+            OverflowPolicy policy = policies.get(eventClass);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        return defaultPolicy;
+    }
+
+    private PendingPost removeHead() {
+        PendingPost pendingPost = head;
+        if (pendingPost != null) {
+            head = pendingPost.next;
+            if (head == null) {
+                tail = null;
+            }
+            pendingPost.next = null;
+            size--;
+        }
+        return pendingPost;
+    }
+
+    private void discard(PendingPost pendingPost) {
+        droppedCount.incrementAndGet();
+        if (pendingPost.event instanceof ConflationSlot) {
+            // Let newer events of the same key start a new slot
+            ((ConflationSlot) pendingPost.event).take();
+        }
+        if (pendingPost.event instanceof PostTracker.Delivery) {
+            ((PostTracker.Delivery) pendingPost.event).tracker.onFinished(null);
+        }
+        // Not returned to the pool, which may be disabled; discarding is rare enough
+        pendingPost.event = null;
+        pendingPost.subscription = null;
+    }
+
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+/**
+ * Extracts the key under which events are conflated, see
+ * {@link EventBusBuilder#conflate(Class, ConflationKeyExtractor)}. Events with equal keys (using equals and hashCode)
+ * replace each other while pending; e.g. progress events could use the ID of the download as key.
+ */
+public interface ConflationKeyExtractor<T> {
+
+    /** @return the conflation key of the given event, must not be null */
+    Object getConflationKey(T event);
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the newest event of a conflation key that is pending for a subscription. Enqueued as the event of a
+ * {@link PendingPost}; newer events replace the held event until delivery takes it.
+ */
+final class ConflationSlot extends AtomicReference<Object> {
+    private static final long serialVersionUID = 5817043712930271183L;
+
+    /** Marks a slot as taken for delivery; later events need a new slot. */
+    private static final Object TAKEN = new Object();
+
+    private final ConcurrentMap<Object, ConflationSlot> slots;
+    private final Object key;
+
+    ConflationSlot(ConcurrentMap<Object, ConflationSlot> slots, Object key, Object event) {
+        super(event);
+        this.slots = slots;
+        this.key = key;
+    }
+
+    /** @return false if the slot was already taken */
+    boolean replace(Object event) {
+        while (true) {
+            Object current = get();
+            if (current == TAKEN) {
+                return false;
+            }
+            if (compareAndSet(current, event)) {
+                return true;
+            }
+        }
+    }
+
+    /** Takes the newest event for delivery or discarding and detaches the slot. Only called once per slot. */
+    Object take() {
+        Object event = getAndSet(TAKEN);
+        slots.remove(key, this);
+        return event;
+    }
+
+    /**
+     * @return the event of the given pending event, looking into conflation slots; only valid for slots that were not
+     * taken yet
+     */
+    static Object peekEvent(Object pendingEvent) {
+        return pendingEvent instanceof ConflationSlot ? ((ConflationSlot) pendingEvent).get() : pendingEvent;
+    }
+
+    /** @return the event class of the given pending event, looking into conflation slots that were not taken yet */
+    static Class<?> getEventClass(Object pendingEvent) {
+        if (pendingEvent instanceof ConflationSlot) {
+            Object event = ((ConflationSlot) pendingEvent).get();
+            return event != TAKEN ? event.getClass() : Object.class;
+        }
+        return pendingEvent.getClass();
+    }
+}
@@ -15,25 +15,37 @@
  */
 package de.greenrobot.event;
 
-import android.os.Looper;
-import android.util.Log;
+import de.greenrobot.event.reactive.Publisher;
+import de.greenrobot.event.reactive.Subscriber;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 
 /**
- * EventBus is a central publish/subscribe event system for Android. Events are posted ({@link #post(Object)}) to the
- * bus, which delivers it to subscribers that have a matching handler method for the event type. To receive events,
- * subscribers must register themselves to the bus using {@link #register(Object)}. Once registered,
- * subscribers receive events until {@link #unregister(Object)} is called. By convention, event handling methods must
- * be named "onEvent", be public, return nothing (void), and have exactly one parameter (the event).
+ * EventBus is a central publish/subscribe event system for Android (and plain Java, see {@link MainThreadSupport}).
+ * Events are posted ({@link #post(Object)}) to the bus, which delivers it to subscribers that have a matching handler
+ * method for the event type. To receive events, subscribers must register themselves to the bus using
+ * {@link #register(Object)}. Once registered, subscribers receive events until {@link #unregister(Object)} is called.
+ * By convention, event handling methods must be named "onEvent", be public, and have exactly one parameter (the event).
+ * Values returned by event handling methods are ignored, except for replies to {@link #request(Object, Class, long)}.
  *
  * @author Markus Junginger, greenrobot
  */
@@ -45,10 +57,36 @@ public class EventBus {
     static volatile EventBus defaultInstance;
 
     private static final EventBusBuilder DEFAULT_BUILDER = new EventBusBuilder();
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+    private static final int DEFAULT_PUBLISHER_BUFFER_SIZE = 128;
+    static final Comparator<Subscription> PRIORITY_COMPARATOR = new Comparator<Subscription>() {
+        @Override
+        public int compare(Subscription lhs, Subscription rhs) {
+            return lhs.priority < rhs.priority ? 1 : (lhs.priority == rhs.priority ? 0 : -1);
+        }
+    };
     private static final Map<Class<?>, List<Class<?>>> eventTypesCache = new HashMap<Class<?>, List<Class<?>>>();
 
-    private final Map<Class<?>, CopyOnWriteArrayList<Subscription>> subscriptionsByEventType;
-    private final Map<Object, List<Class<?>>> typesBySubscriber;
+    /**
+     * Lists are guarded by {@link #registryLock}; posting threads use the {@link #dispatchPlans} built from them, so
+     * posting never contends with (un)registration.
+     */
+    private final Map<Class<?>, SubscriptionList> subscriptionsByEventType;
+    /**
+     * Flattened subscriptions per concrete event class, covering all super types if event inheritance is enabled.
+     * Built lazily and invalidated while holding {@link #registryLock}.
+     */
+    private final Map<Class<?>, Subscription[]> dispatchPlans;
+    /**
+     * With event inheritance, the event classes whose dispatch plans include subscriptions of an event type, so a
+     * (un)registration invalidates only those plans. Guarded by {@link #registryLock}; may list plans already dropped.
+     */
+    private final Map<Class<?>, Set<Class<?>>> dispatchPlansByEventType;
+    /** Incremented while holding {@link #registryLock} each time dispatch plans are invalidated. */
+    private volatile int registryVersion;
+    /** By subscriber identity, so subscribers' equals and hashCode don't matter. Guarded by {@link #registryLock}. */
+    private final Map<Object, Registration> registrations;
+    private final Object registryLock = new Object();
     private final Map<Class<?>, Object> stickyEvents;
 
     private final ThreadLocal<PostingThreadState> currentPostingThreadState = new ThreadLocal<PostingThreadState>() {
@@ -59,11 +97,27 @@ public class EventBus {
     };
 
 
-    private final HandlerPoster mainThreadPoster;
-    private final BackgroundPoster backgroundPoster;
-    private final AsyncPoster asyncPoster;
+    private final MainThreadSupport mainThreadSupport;
+    private final MainThreadPoster mainThreadPoster;
+    private final BatchPoster backgroundPoster;
+    private final Poster asyncPoster;
     private final SubscriberMethodFinder subscriberMethodFinder;
     private final ExecutorService executorService;
+    private final TimerWheel timerWheel;
+    private final Logger logger;
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong blockedEventCount = new AtomicLong();
+    private final AtomicLong conflatedEventCount = new AtomicLong();
+    private final int maxQueueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Map<Class<?>, OverflowPolicy> overflowPolicies;
+    private final int priorityStarvationLimit;
+    private final int parallelFanOutThreshold;
+    private final int parallelism;
+    /** Null if no event type is conflated. */
+    private final Map<Class<?>, ConflationKeyExtractor<Object>> conflationKeyExtractors;
+    /** Null if no event handler is rate limited. */
+    private final Map<Class<?>, Map<Class<?>, RateLimiter.Config>> rateLimits;
 
     private final boolean throwSubscriberException;
     private final boolean logSubscriberExceptions;
@@ -71,6 +125,7 @@ public class EventBus {
     private final boolean sendSubscriberExceptionEvent;
     private final boolean sendNoSubscriberEvent;
     private final boolean eventInheritance;
+    private final boolean pendingPostPooling;
 
     /** Convenience singleton for apps using a process-wide EventBus instance. */
     public static EventBus getDefault() {
@@ -88,9 +143,16 @@ public class EventBus {
         return new EventBusBuilder();
     }
 
-    /** For unit test primarily. */
+    /**
+     * For unit test primarily. Clears the event type hierarchy cache shared by all instances and the subscriber method
+     * cache of the default instance; other instances cache subscriber methods per instance.
+     */
     public static void clearCaches() {
-        SubscriberMethodFinder.clearCaches();
+        synchronized (EventBus.class) {
+            if (defaultInstance != null) {
+                defaultInstance.subscriberMethodFinder.clearCache();
+            }
+        }
         eventTypesCache.clear();
     }
 
@@ -103,26 +165,105 @@ public class EventBus {
     }
 
     EventBus(EventBusBuilder builder) {
-        subscriptionsByEventType = new HashMap<Class<?>, CopyOnWriteArrayList<Subscription>>();
-        typesBySubscriber = new HashMap<Object, List<Class<?>>>();
+        subscriptionsByEventType = new ConcurrentHashMap<Class<?>, SubscriptionList>();
+        dispatchPlans = new ConcurrentHashMap<Class<?>, Subscription[]>();
+        dispatchPlansByEventType = new HashMap<Class<?>, Set<Class<?>>>();
+        registrations = new IdentityHashMap<Object, Registration>();
         stickyEvents = new ConcurrentHashMap<Class<?>, Object>();
-        mainThreadPoster = new HandlerPoster(this, Looper.getMainLooper(), 10);
-        backgroundPoster = new BackgroundPoster(this);
-        asyncPoster = new AsyncPoster(this);
-        subscriberMethodFinder = new SubscriberMethodFinder(builder.skipMethodVerificationForClasses);
+        logger = builder.getLogger();
+        mainThreadSupport = builder.getMainThreadSupport();
+        maxQueueSize = builder.maxQueueSize;
+        priorityStarvationLimit = builder.priorityStarvationLimit;
+        parallelFanOutThreshold = builder.parallelFanOutThreshold;
+        parallelism = builder.parallelism;
+        overflowPolicy = builder.overflowPolicy;
+        overflowPolicies = builder.overflowPolicies != null ?
+                new HashMap<Class<?>, OverflowPolicy>(builder.overflowPolicies) : null;
+        PosterQueue mainThreadQueue = createPrioritizedPosterQueue("main thread");
+        mainThreadPoster = new MainThreadPoster(this, mainThreadSupport, mainThreadQueue, 10);
+        if (builder.backgroundWorkers > 1) {
+            BatchPoster[] workers = new BatchPoster[builder.backgroundWorkers];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = createBackgroundPoster(builder);
+            }
+            Map<Class<?>, PartitionKeyExtractor<Object>> keyExtractors = builder.partitionKeyExtractors != null ?
+                    new HashMap<Class<?>, PartitionKeyExtractor<Object>>(builder.partitionKeyExtractors) : null;
+            backgroundPoster = new PartitionedBackgroundPoster(workers, keyExtractors);
+        } else {
+            backgroundPoster = createBackgroundPoster(builder);
+        }
+        if (builder.orderedAsyncThreadPoolSize > 0) {
+            asyncPoster = new OrderedAsyncPoster(this, builder.orderedAsyncThreadPoolSize);
+        } else {
+            asyncPoster = new AsyncPoster(this, getAsyncExecutorService(builder), createPosterQueue("async", false));
+        }
+        subscriberMethodFinder = new SubscriberMethodFinder(builder.skipMethodVerificationForClasses,
+                builder.subscriberInfoIndexes, builder.methodInvokerFactory, logger);
         logSubscriberExceptions = builder.logSubscriberExceptions;
         logNoSubscriberMessages = builder.logNoSubscriberMessages;
         sendSubscriberExceptionEvent = builder.sendSubscriberExceptionEvent;
         sendNoSubscriberEvent = builder.sendNoSubscriberEvent;
         throwSubscriberException = builder.throwSubscriberException;
         eventInheritance = builder.eventInheritance;
+        pendingPostPooling = builder.pendingPostPooling;
+        conflationKeyExtractors = builder.conflationKeyExtractors != null ?
+                new HashMap<Class<?>, ConflationKeyExtractor<Object>>(builder.conflationKeyExtractors) : null;
         executorService = builder.executorService;
+        rateLimits = builder.rateLimits != null ? copyRateLimits(builder.rateLimits) : null;
+        timerWheel = new TimerWheel(this, builder.timerTickMillis, builder.timerTicksPerWheel);
+    }
+
+    private static Map<Class<?>, Map<Class<?>, RateLimiter.Config>> copyRateLimits(
+            Map<Class<?>, Map<Class<?>, RateLimiter.Config>> rateLimits) {
+        Map<Class<?>, Map<Class<?>, RateLimiter.Config>> copy =
+                new HashMap<Class<?>, Map<Class<?>, RateLimiter.Config>>();
+        for (Map.Entry<Class<?>, Map<Class<?>, RateLimiter.Config>> entry : rateLimits.entrySet()) {
+            copy.put(entry.getKey(), new HashMap<Class<?>, RateLimiter.Config>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    private BatchPoster createBackgroundPoster(EventBusBuilder builder) {
+        if (builder.ringBufferSize > 0) {
+            return new RingBufferPoster(this, builder.ringBufferSize, builder.waitStrategy);
+        }
+        return new BackgroundPoster(this, createPrioritizedPosterQueue("background"));
+    }
+
+    private ExecutorService getAsyncExecutorService(EventBusBuilder builder) {
+        if (builder.asyncVirtualThreads) {
+            ExecutorService virtualThreadExecutorService = VirtualThreads.getExecutorService();
+            if (virtualThreadExecutorService != null) {
+                return virtualThreadExecutorService;
+            }
+            logger.log(Level.INFO, "Virtual threads are not supported by this runtime, using the executor service");
+        }
+        return builder.executorService;
+    }
+
+    private PosterQueue createPrioritizedPosterQueue(String name) {
+        if (priorityStarvationLimit > 0) {
+            PosterQueue[] lanes = {createPosterQueue(name + " high priority", true),
+                    createPosterQueue(name + " normal priority", true),
+                    createPosterQueue(name + " low priority", true)};
+            return new PriorityPosterQueue(lanes, priorityStarvationLimit);
+        }
+        return createPosterQueue(name, true);
+    }
+
+    PosterQueue createPosterQueue(String name, boolean singleConsumer) {
+        if (maxQueueSize > 0) {
+            return new BoundedPendingPostQueue(name, maxQueueSize, overflowPolicy, overflowPolicies,
+                    droppedEventCount, blockedEventCount);
+        }
+        return singleConsumer ? new MpscPendingPostQueue() : new PendingPostQueue();
     }
 
 
     /**
      * Registers the given subscriber to receive events. Subscribers must call {@link #unregister(Object)} once they
-     * are no longer interested in receiving events.
+     * are no longer interested in receiving events; to get a handle to close instead, use
+     * {@link #registerWithHandle(Object)}.
      * <p/>
      * Subscribers have event handling methods that are identified by their name, typically called "onEvent". Event
      * handling methods must have exactly one parameter, the event. If the event handling method is to be called in a
@@ -137,8 +278,10 @@ public class EventBus {
     /**
      * Like {@link #register(Object)} with an additional subscriber priority to influence the order of event delivery.
      * Within the same delivery thread ({@link ThreadMode}), higher priority subscribers will receive events before
-     * others with a lower priority. The default priority is 0. Note: the priority does *NOT* affect the order of
-     * delivery among subscribers with different {@link ThreadMode}s!
+     * others with a lower priority. The default priority is 0. With event inheritance, this also applies across
+     * subscribers of the event's super types; subscribers of equal priority receive events of more specific types
+     * first. Note: the priority does *NOT* affect the order of delivery among subscribers with different
+     * {@link ThreadMode}s!
      */
     public void register(Object subscriber, int priority) {
         register(subscriber, false, priority);
@@ -160,45 +303,136 @@ public class EventBus {
         register(subscriber, true, priority);
     }
 
-    private synchronized void register(Object subscriber, boolean sticky, int priority) {
-        List<SubscriberMethod> subscriberMethods = subscriberMethodFinder.findSubscriberMethods(subscriber.getClass());
-        for (SubscriberMethod subscriberMethod : subscriberMethods) {
-            subscribe(subscriber, subscriberMethod, sticky, priority);
+    /**
+     * Like {@link #register(Object)}, but returns a handle to unregister the subscriber with. Closing the handle is
+     * cheaper than {@link #unregister(Object)}, and does not depend on the subscriber's equals and hashCode.
+     *
+     * @return handle to unregister the subscriber; registering an already registered subscriber for further event
+     * handling methods (e.g. of a subclass) returns the same handle
+     */
+    public Registration registerWithHandle(Object subscriber) {
+        return register(subscriber, false, 0);
+    }
+
+    /** Like {@link #register(Object, int)}, but returns a handle, see {@link #registerWithHandle(Object)}. */
+    public Registration registerWithHandle(Object subscriber, int priority) {
+        return register(subscriber, false, priority);
+    }
+
+    /** Like {@link #registerSticky(Object)}, but returns a handle, see {@link #registerWithHandle(Object)}. */
+    public Registration registerStickyWithHandle(Object subscriber) {
+        return register(subscriber, true, 0);
+    }
+
+    /** Like {@link #registerSticky(Object, int)}, but returns a handle, see {@link #registerWithHandle(Object)}. */
+    public Registration registerStickyWithHandle(Object subscriber, int priority) {
+        return register(subscriber, true, priority);
+    }
+
+    /**
+     * Registers all given subscribers like {@link #registerWithHandle(Object)}, but faster than registering them one by
+     * one: the subscriptions of each event type are sorted and the dispatch plans invalidated only once. If any of the
+     * subscribers is registered already, none of them is registered.
+     *
+     * @return handles to unregister the subscribers, in the iteration order of the given subscribers
+     */
+    public List<Registration> registerAll(Collection<?> subscribers) {
+        // Looking up methods may involve reflection, so do it before taking the lock
+        List<List<SubscriberMethod>> subscriberMethodLists = new ArrayList<List<SubscriberMethod>>(subscribers.size());
+        for (Object subscriber : subscribers) {
+            subscriberMethodLists.add(subscriberMethodFinder.findSubscriberMethods(subscriber.getClass()));
+        }
+        synchronized (registryLock) {
+            Map<Class<?>, List<Subscription>> newSubscriptionsByEventType =
+                    new HashMap<Class<?>, List<Subscription>>();
+            Set<Subscription> newSubscriptions = new HashSet<Subscription>();
+            int index = 0;
+            for (Object subscriber : subscribers) {
+                for (SubscriberMethod subscriberMethod : subscriberMethodLists.get(index)) {
+                    Class<?> eventType = subscriberMethod.eventType;
+                    Subscription newSubscription = createSubscription(subscriber, subscriberMethod, 0);
+                    SubscriptionList subscriptions = subscriptionsByEventType.get(eventType);
+                    if (!newSubscriptions.add(newSubscription) ||
+                            (subscriptions != null && subscriptions.contains(newSubscription))) {
+                        throw new EventBusException("Subscriber " + subscriber.getClass()
+                                + " already registered to event " + eventType);
+                    }
+                    List<Subscription> newSubscriptionsOfType = newSubscriptionsByEventType.get(eventType);
+                    if (newSubscriptionsOfType == null) {
+                        newSubscriptionsOfType = new ArrayList<Subscription>();
+                        newSubscriptionsByEventType.put(eventType, newSubscriptionsOfType);
+                    }
+                    newSubscriptionsOfType.add(newSubscription);
+                }
+                index++;
+            }
+            for (Map.Entry<Class<?>, List<Subscription>> entry : newSubscriptionsByEventType.entrySet()) {
+                Class<?> eventType = entry.getKey();
+                SubscriptionList subscriptions = subscriptionsByEventType.get(eventType);
+                if (subscriptions == null) {
+                    subscriptions = new SubscriptionList();
+                    subscriptionsByEventType.put(eventType, subscriptions);
+                }
+                subscriptions.addAll(entry.getValue());
+                invalidateDispatchPlans(eventType);
+                for (Subscription subscription : entry.getValue()) {
+                    getOrCreateRegistration(subscription.subscriber).subscriptions.add(subscription);
+                }
+            }
+            List<Registration> newRegistrations = new ArrayList<Registration>(subscribers.size());
+            for (Object subscriber : subscribers) {
+                newRegistrations.add(getOrCreateRegistration(subscriber));
+            }
+            return newRegistrations;
         }
     }
 
-    // Must be called in synchronized block
-    private void subscribe(Object subscriber, SubscriberMethod subscriberMethod, boolean sticky, int priority) {
-        Class<?> eventType = subscriberMethod.eventType;
-        CopyOnWriteArrayList<Subscription> subscriptions = subscriptionsByEventType.get(eventType);
-        Subscription newSubscription = new Subscription(subscriber, subscriberMethod, priority);
-        if (subscriptions == null) {
-            subscriptions = new CopyOnWriteArrayList<Subscription>();
-            subscriptionsByEventType.put(eventType, subscriptions);
-        } else {
-            if (subscriptions.contains(newSubscription)) {
-                throw new EventBusException("Subscriber " + subscriber.getClass() + " already registered to event "
-                        + eventType);
+    private Registration register(Object subscriber, boolean sticky, int priority) {
+        // Looking up methods may involve reflection, so do it before taking the lock
+        List<SubscriberMethod> subscriberMethods = subscriberMethodFinder.findSubscriberMethods(subscriber.getClass());
+        synchronized (registryLock) {
+            Registration registration = getOrCreateRegistration(subscriber);
+            for (SubscriberMethod subscriberMethod : subscriberMethods) {
+                subscribe(registration, subscriberMethod, sticky, priority);
             }
+            return registration;
         }
+    }
 
-        // Starting with EventBus 2.2 we enforced methods to be public (might change with annotations again)
-        // subscriberMethod.method.setAccessible(true);
+    /** Registers a subscriber with a single, synthetic event handling method. */
+    void register(Object subscriber, SubscriberMethod subscriberMethod) {
+        synchronized (registryLock) {
+            subscribe(getOrCreateRegistration(subscriber), subscriberMethod, false, 0);
+        }
+    }
 
-        int size = subscriptions.size();
-        for (int i = 0; i <= size; i++) {
-            if (i == size || newSubscription.priority > subscriptions.get(i).priority) {
-                subscriptions.add(i, newSubscription);
-                break;
-            }
+    // Must be called in synchronized (registryLock) block
+    private Registration getOrCreateRegistration(Object subscriber) {
+        Registration registration = registrations.get(subscriber);
+        if (registration == null) {
+            registration = new Registration(this, subscriber);
+            registrations.put(subscriber, registration);
         }
+        return registration;
+    }
 
-        List<Class<?>> subscribedEvents = typesBySubscriber.get(subscriber);
-        if (subscribedEvents == null) {
-            subscribedEvents = new ArrayList<Class<?>>();
-            typesBySubscriber.put(subscriber, subscribedEvents);
+    // Must be called in synchronized (registryLock) block
+    private void subscribe(Registration registration, SubscriberMethod subscriberMethod, boolean sticky,
+                           int priority) {
+        Object subscriber = registration.subscriber;
+        Class<?> eventType = subscriberMethod.eventType;
+        SubscriptionList subscriptions = subscriptionsByEventType.get(eventType);
+        Subscription newSubscription = createSubscription(subscriber, subscriberMethod, priority);
+        if (subscriptions == null) {
+            subscriptions = new SubscriptionList();
+            subscriptionsByEventType.put(eventType, subscriptions);
+        } else if (subscriptions.contains(newSubscription)) {
+            throw new EventBusException("Subscriber " + subscriber.getClass() + " already registered to event "
+                    + eventType);
         }
-        subscribedEvents.add(eventType);
+        subscriptions.add(newSubscription);
+        invalidateDispatchPlans(eventType);
+        registration.subscriptions.add(newSubscription);
 
         if (sticky) {
             if (eventInheritance) {
@@ -221,71 +455,333 @@ public class EventBus {
         }
     }
 
+    private Subscription createSubscription(Object subscriber, SubscriberMethod subscriberMethod, int priority) {
+        Subscription subscription = new Subscription(subscriber, subscriberMethod, priority);
+        if (rateLimits != null) {
+            Map<Class<?>, RateLimiter.Config> rateLimitsByEventType = rateLimits.get(subscriberMethod.declaringClass);
+            RateLimiter.Config rateLimit = rateLimitsByEventType != null ?
+                    rateLimitsByEventType.get(subscriberMethod.eventType) : null;
+            if (rateLimit != null) {
+                subscription.rateLimiter = new RateLimiter(this, subscription, rateLimit);
+            }
+        }
+        return subscription;
+    }
+
     private void checkPostStickyEventToSubscription(Subscription newSubscription, Object stickyEvent) {
         if (stickyEvent != null) {
             // If the subscriber is trying to abort the event, it will fail (event is not tracked in posting state)
             // --> Strange corner case, which we don't take care of here.
-            postToSubscription(newSubscription, stickyEvent, Looper.getMainLooper() == Looper.myLooper());
+            postToSubscription(newSubscription, stickyEvent, mainThreadSupport.isMainThread(), null, null);
         }
     }
 
-    public synchronized boolean isRegistered(Object subscriber) {
-        return typesBySubscriber.containsKey(subscriber);
+    public boolean isRegistered(Object subscriber) {
+        synchronized (registryLock) {
+            return registrations.containsKey(subscriber);
+        }
+    }
+
+    boolean isRegistered(Registration registration) {
+        synchronized (registryLock) {
+            return registration.registered;
+        }
+    }
+
+    // Must be called in synchronized (registryLock) block
+    private void unsubscribe(Registration registration) {
+        registration.registered = false;
+        List<Subscription> subscriptions = registration.subscriptions;
+        int count = subscriptions.size();
+        for (int i = 0; i < count; i++) {
+            Class<?> eventType = subscriptions.get(i).subscriberMethod.eventType;
+            subscriptionsByEventType.get(eventType).remove(subscriptions.get(i));
+            // Subscribers mostly have a single handler per event type; skip types invalidated already
+            boolean invalidated = false;
+            for (int j = 0; j < i && !invalidated; j++) {
+                invalidated = subscriptions.get(j).subscriberMethod.eventType == eventType;
+            }
+            if (!invalidated) {
+                invalidateDispatchPlans(eventType);
+            }
+        }
     }
 
-    /** Only updates subscriptionsByEventType, not typesBySubscriber! Caller must update typesBySubscriber. */
-    private void unubscribeByEventType(Object subscriber, Class<?> eventType) {
-        List<Subscription> subscriptions = subscriptionsByEventType.get(eventType);
-        if (subscriptions != null) {
-            int size = subscriptions.size();
-            for (int i = 0; i < size; i++) {
-                Subscription subscription = subscriptions.get(i);
-                if (subscription.subscriber == subscriber) {
-                    subscription.active = false;
-                    subscriptions.remove(i);
-                    i--;
-                    size--;
+    /** Drops the cached plans of all event classes delivered to the given type. Must hold {@link #registryLock}. */
+    private void invalidateDispatchPlans(Class<?> eventType) {
+        if (eventInheritance) {
+            Set<Class<?>> eventClasses = dispatchPlansByEventType.get(eventType);
+            if (eventClasses != null) {
+                for (Class<?> eventClass : eventClasses) {
+                    dispatchPlans.remove(eventClass);
                 }
+                eventClasses.clear();
             }
+        } else {
+            dispatchPlans.remove(eventType);
         }
+        registryVersion++;
     }
 
     /** Unregisters the given subscriber from all event classes. */
-    public synchronized void unregister(Object subscriber) {
-        List<Class<?>> subscribedTypes = typesBySubscriber.get(subscriber);
-        if (subscribedTypes != null) {
-            for (Class<?> eventType : subscribedTypes) {
-                unubscribeByEventType(subscriber, eventType);
+    public void unregister(Object subscriber) {
+        synchronized (registryLock) {
+            Registration registration = registrations.remove(subscriber);
+            if (registration != null) {
+                unsubscribe(registration);
+            } else {
+                logger.log(Level.WARNING, "Subscriber to unregister was not registered before: "
+                        + subscriber.getClass());
+            }
+        }
+    }
+
+    /** Unregisters the subscriber of the given registration, see {@link Registration#close()}. */
+    void unregister(Registration registration) {
+        synchronized (registryLock) {
+            if (registration.registered) {
+                registrations.remove(registration.subscriber);
+                unsubscribe(registration);
             }
-            typesBySubscriber.remove(subscriber);
-        } else {
-            Log.w(TAG, "Subscriber to unregister was not registered before: " + subscriber.getClass());
         }
     }
 
     /** Posts the given event to the event bus. */
     public void post(Object event) {
         PostingThreadState postingState = currentPostingThreadState.get();
-        List<Object> eventQueue = postingState.eventQueue;
-        eventQueue.add(event);
+        postingState.eventQueue.add(event);
+
+        if (!postingState.isPosting) {
+            postQueuedEvents(postingState, false);
+        }
+    }
+
+    /**
+     * Posts the given event like {@link #post(Object)} and calls the callback once all subscribers finished handling
+     * it, including subscribers called on the main thread, background threads or asynchronously. The callback is
+     * called on the thread finishing the last delivery and receives a {@link SubscriberExceptionEvent} for each
+     * subscriber that threw an exception. Deliveries discarded by a full bounded queue (see
+     * {@link EventBusBuilder#maxQueueSize(int)}) or held back by a rate limit (see
+     * {@link EventBusBuilder#throttle(Class, Class, long)}) count as finished. Events posted this way are not
+     * conflated.
+     */
+    public void post(Object event, PostCallback callback) {
+        if (callback == null) {
+            throw new NullPointerException("Callback must not be null");
+        }
+        PostingThreadState postingState = currentPostingThreadState.get();
+        postingState.eventQueue.add(new PostTracker.Delivery(new PostTracker(callback), event));
+
+        if (!postingState.isPosting) {
+            postQueuedEvents(postingState, false);
+        }
+    }
+
+    /**
+     * Like {@link #post(Object, PostCallback)}, but returns a future completing once all subscribers finished handling
+     * the event. For example, waiting for the future lets a producer apply backpressure instead of posting faster than
+     * subscribers keep up.
+     *
+     * @return future of the exception events of the failed deliveries; cannot be cancelled
+     */
+    public Future<List<SubscriberExceptionEvent>> postAsync(Object event) {
+        PostFuture future = new PostFuture();
+        post(event, future);
+        return future;
+    }
+
+    /**
+     * Posts the given event as a request and returns the first reply. Event handling methods reply by returning a
+     * value; replies that are not instances of the given reply type (use wrapper types for primitives) are ignored.
+     * Replies are collected in the same dispatch, so no reply event and no correlation is needed. The reply is
+     * returned as soon as it arrives, while other subscribers may still handle the event.
+     * <p/>
+     * Must not be called while the calling thread is posting, e.g. from a {@link ThreadMode#PostThread} subscriber,
+     * because the request would only be dispatched after that subscriber returned.
+     *
+     * @return the first reply, or null if no subscriber replied within the timeout
+     */
+    public <R> R request(Object event, Class<R> replyType, long timeoutMillis) {
+        return postRequest(event, replyType).awaitFirst(timeoutMillis);
+    }
+
+    /**
+     * Like {@link #request(Object, Class, long)}, but waits for all subscribers to handle the event.
+     *
+     * @return the replies in the order they arrived; if the timeout elapsed first, only those received until then
+     */
+    public <R> List<R> requestAll(Object event, Class<R> replyType, long timeoutMillis) {
+        return postRequest(event, replyType).awaitAll(timeoutMillis);
+    }
+
+    /**
+     * Like {@link #requestAll(Object, Class, long)}, but combines the replies using the given reducer, starting with
+     * the given identity.
+     *
+     * @return the identity if no subscriber replied within the timeout
+     */
+    public <R> R request(Object event, Class<R> replyType, R identity, ReplyReducer<R> reducer, long timeoutMillis) {
+        R result = identity;
+        for (R reply : requestAll(event, replyType, timeoutMillis)) {
+            result = reducer.reduce(result, reply);
+        }
+        return result;
+    }
+
+    private <R> ReplyCollector<R> postRequest(Object event, Class<R> replyType) {
+        PostingThreadState postingState = currentPostingThreadState.get();
+        if (postingState.isPosting) {
+            throw new EventBusException("Requests must not be made while the current thread is posting");
+        }
+        ReplyCollector<R> collector = new ReplyCollector<R>(replyType);
+        postingState.eventQueue.add(new PostTracker.Delivery(collector, event));
+        postQueuedEvents(postingState, false);
+        return collector;
+    }
+
+    /**
+     * Like {@link #asPublisher(Class, ThreadMode, int, OverflowPolicy)}, delivering on the posting thread with a buffer
+     * for 128 events and the overflow policy of the bus' bounded queues (default: {@link OverflowPolicy#Block}).
+     */
+    public <T> Publisher<T> asPublisher(Class<T> eventType) {
+        return asPublisher(eventType, ThreadMode.PostThread, DEFAULT_PUBLISHER_BUFFER_SIZE, overflowPolicy);
+    }
+
+    /**
+     * Publishes events of the given type (including subtypes if event inheritance is enabled) posted to this bus to
+     * reactive subscribers, honoring their demand. Each reactive subscriber is registered to the bus like a subscriber
+     * with an event handling method using the given thread mode, from which it receives its events. Events are passed
+     * on as requested by {@link de.greenrobot.event.reactive.Subscription#request(long)}; without demand, up to the
+     * given number of events are buffered per subscriber, after which the given overflow policy applies:
+     * {@link OverflowPolicy#Block} blocks the delivering thread until the subscriber requests more, and
+     * {@link OverflowPolicy#Fail} signals onError and cancels the subscription. Dropped events are counted by
+     * {@link #getDroppedEventCount()}. Cancelling the subscription unregisters the reactive subscriber.
+     */
+    public <T> Publisher<T> asPublisher(Class<T> eventType, ThreadMode threadMode, int bufferSize,
+                                        OverflowPolicy overflowPolicy) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        if (threadMode == null || overflowPolicy == null) {
+            throw new NullPointerException("Thread mode and overflow policy must not be null");
+        }
+        return new PublisherAdapter<T>(this, eventType, threadMode, bufferSize, overflowPolicy);
+    }
+
+    /**
+     * Creates a reactive subscriber posting the elements it receives to this bus. It keeps at most the given number of
+     * posts in flight: it requests that many elements initially, and one more each time all subscribers of the bus
+     * finished handling an element (see {@link #post(Object, PostCallback)}). Thus, slow subscribers of the bus slow
+     * down the publisher instead of events piling up in queues. Errors of the publisher are logged.
+     */
+    public Subscriber<Object> asSubscriber(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one post must be in flight: " + maxInFlight);
+        }
+        return new SubscriberAdapter(this, maxInFlight);
+    }
+
+    /**
+     * Posts the given events in order, like calling {@link #post(Object)} for each event, but with less overhead per
+     * event. Subscribers are looked up once per event class for consecutive events of the same class, and events for
+     * {@link ThreadMode#MainThread} and {@link ThreadMode#BackgroundThread} subscribers are handed to the respective
+     * thread all at once after the whole batch was processed by the posting thread.
+     */
+    public void postAll(Collection<?> events) {
+        PostingThreadState postingState = currentPostingThreadState.get();
+        postingState.eventQueue.addAll(events);
 
         if (!postingState.isPosting) {
-            postingState.isMainThread = Looper.getMainLooper() == Looper.myLooper();
-            postingState.isPosting = true;
-            if (postingState.canceled) {
-                throw new EventBusException("Internal error. Abort state was not reset");
+            postQueuedEvents(postingState, true);
+        }
+    }
+
+    /** Like {@link #postAll(Collection)}. */
+    public void postAll(Object[] events) {
+        postAll(Arrays.asList(events));
+    }
+
+    private void postQueuedEvents(PostingThreadState postingState, boolean batch) {
+        ArrayDeque<Object> eventQueue = postingState.eventQueue;
+        postingState.isMainThread = mainThreadSupport.isMainThread();
+        postingState.isPosting = true;
+        postingState.batch = batch;
+        if (postingState.canceled) {
+            throw new EventBusException("Internal error. Abort state was not reset");
+        }
+        try {
+            Object event;
+            while ((event = eventQueue.poll()) != null) {
+                if (event instanceof PostTracker.Delivery) {
+                    postTrackedEvent((PostTracker.Delivery) event, postingState);
+                } else {
+                    postSingleEvent(event, postingState);
+                }
             }
-            try {
-                while (!eventQueue.isEmpty()) {
-                    postSingleEvent(eventQueue.remove(0), postingState);
+        } finally {
+            postingState.isPosting = false;
+            postingState.isMainThread = false;
+            if (batch) {
+                postingState.batch = false;
+                postingState.batchEventClass = null;
+                postingState.batchSubscriptions = null;
+                // An overflow failing one hand-off (OverflowPolicy.Fail) must not lose the other batch
+                try {
+                    if (postingState.mainThreadBatch != null) {
+                        mainThreadPoster.enqueueAll(postingState.mainThreadBatch);
+                    }
+                } finally {
+                    if (postingState.backgroundBatch != null) {
+                        backgroundPoster.enqueueAll(postingState.backgroundBatch);
+                    }
                 }
-            } finally {
-                postingState.isPosting = false;
-                postingState.isMainThread = false;
             }
         }
     }
 
+    /**
+     * Posts the given event after the given delay, see {@link #postAt(Object, long)}.
+     *
+     * @return token to cancel the post using {@link #cancelScheduled(ScheduledPost)}
+     */
+    public ScheduledPost postDelayed(Object event, long delayMillis) {
+        if (event == null) {
+            throw new NullPointerException("Event must not be null");
+        }
+        return timerWheel.schedule(event, null, TimeUnit.MILLISECONDS.toNanos(delayMillis));
+    }
+
+    /**
+     * Posts the given event at the given time in milliseconds since the epoch, like {@link System#currentTimeMillis()}.
+     * The event is posted with the granularity of a timer tick, see {@link EventBusBuilder#timerWheel(long, int)}, from
+     * the bus' timer thread and delivered to subscribers by their {@link ThreadMode} as usual. Thus,
+     * {@link ThreadMode#PostThread} subscribers run on the timer thread and delay other scheduled posts while running.
+     *
+     * @return token to cancel the post using {@link #cancelScheduled(ScheduledPost)}
+     */
+    public ScheduledPost postAt(Object event, long timeMillis) {
+        return postDelayed(event, timeMillis - System.currentTimeMillis());
+    }
+
+    /**
+     * Cancels a post scheduled by {@link #postDelayed(Object, long)} or {@link #postAt(Object, long)}.
+     *
+     * @return true if the post was cancelled, false if it was already posted or cancelled before
+     */
+    public boolean cancelScheduled(ScheduledPost scheduledPost) {
+        return scheduledPost.cancel();
+    }
+
+    private void postTrackedEvent(PostTracker.Delivery delivery, PostingThreadState postingState) {
+        postingState.tracker = delivery.tracker;
+        try {
+            postSingleEvent(delivery.event, postingState);
+        } finally {
+            postingState.tracker = null;
+            delivery.tracker.onFinished(null);
+        }
+    }
+
     /**
      * Called from a subscriber's event handling method, further event delivery will be canceled. Subsequent
      * subscribers
@@ -298,6 +794,8 @@ public class EventBus {
         if (!postingState.isPosting) {
             throw new EventBusException(
                     "This method may only be called from inside event handling methods on the posting thread");
+        } else if (postingState.parallel) {
+            throw new EventBusException("Event delivery cannot be canceled with parallel fan-out");
         } else if (event == null) {
             throw new EventBusException("Event may not be null");
         } else if (postingState.event != event) {
@@ -377,10 +875,7 @@ public class EventBus {
             int countTypes = eventTypes.size();
             for (int h = 0; h < countTypes; h++) {
                 Class<?> clazz = eventTypes.get(h);
-                CopyOnWriteArrayList<Subscription> subscriptions;
-                synchronized (this) {
-                    subscriptions = subscriptionsByEventType.get(clazz);
-                }
+                SubscriptionList subscriptions = subscriptionsByEventType.get(clazz);
                 if (subscriptions != null && !subscriptions.isEmpty()) {
                     return true;
                 }
@@ -391,20 +886,23 @@ public class EventBus {
 
     private void postSingleEvent(Object event, PostingThreadState postingState) throws Error {
         Class<?> eventClass = event.getClass();
-        boolean subscriptionFound = false;
-        if (eventInheritance) {
-            List<Class<?>> eventTypes = lookupAllEventTypes(eventClass);
-            int countTypes = eventTypes.size();
-            for (int h = 0; h < countTypes; h++) {
-                Class<?> clazz = eventTypes.get(h);
-                subscriptionFound |= postSingleEventForEventType(event, postingState, clazz);
-            }
+        Subscription[] subscriptions;
+        if (!postingState.batch) {
+            subscriptions = getDispatchPlan(eventClass);
+        } else if (eventClass == postingState.batchEventClass && registryVersion == postingState.batchVersion) {
+            subscriptions = postingState.batchSubscriptions;
         } else {
-            subscriptionFound = postSingleEventForEventType(event, postingState, eventClass);
+            // Read the version first: if it changes while getting the plan, the plan is just fetched again
+            postingState.batchVersion = registryVersion;
+            subscriptions = getDispatchPlan(eventClass);
+            postingState.batchEventClass = eventClass;
+            postingState.batchSubscriptions = subscriptions;
         }
-        if (!subscriptionFound) {
+        if (subscriptions.length > 0) {
+            postSingleEventToSubscriptions(event, postingState, subscriptions);
+        } else {
             if (logNoSubscriberMessages) {
-                Log.d(TAG, "No subscribers registered for event " + eventClass);
+                logger.log(Level.FINE, "No subscribers registered for event " + eventClass);
             }
             if (sendNoSubscriberEvent && eventClass != NoSubscriberEvent.class &&
                     eventClass != SubscriberExceptionEvent.class) {
@@ -413,34 +911,150 @@ public class EventBus {
         }
     }
 
-    private boolean postSingleEventForEventType(Object event, PostingThreadState postingState, Class<?> eventClass) {
-        CopyOnWriteArrayList<Subscription> subscriptions;
-        synchronized (this) {
-            subscriptions = subscriptionsByEventType.get(eventClass);
+    private void postSingleEventToSubscriptions(Object event, PostingThreadState postingState,
+                                                Subscription[] subscriptions) {
+        if (parallelFanOutThreshold > 0 && subscriptions.length >= parallelFanOutThreshold) {
+            postSingleEventInParallel(event, postingState, subscriptions);
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            postingState.event = event;
+            postingState.subscription = subscription;
+            boolean aborted = false;
+            try {
+                postToSubscription(subscription, event, postingState.isMainThread,
+                        postingState.batch ? postingState : null, postingState.tracker);
+                aborted = postingState.canceled;
+            } finally {
+                postingState.event = null;
+                postingState.subscription = null;
+                postingState.canceled = false;
+            }
+            if (aborted) {
+                break;
+            }
         }
-        if (subscriptions != null && !subscriptions.isEmpty()) {
+    }
+
+    private void postSingleEventInParallel(Object event, PostingThreadState postingState,
+                                           Subscription[] subscriptions) {
+        postingState.parallel = true;
+        try {
+            // Other thread modes only enqueue or must run on the posting thread; they go first, in plan order
             for (Subscription subscription : subscriptions) {
-                postingState.event = event;
-                postingState.subscription = subscription;
-                boolean aborted = false;
-                try {
-                    postToSubscription(subscription, event, postingState.isMainThread);
-                    aborted = postingState.canceled;
-                } finally {
-                    postingState.event = null;
-                    postingState.subscription = null;
-                    postingState.canceled = false;
+                if (subscription.subscriberMethod.threadMode != ThreadMode.PostThread) {
+                    postToSubscription(subscription, event, postingState.isMainThread,
+                            postingState.batch ? postingState : null, postingState.tracker);
                 }
-                if (aborted) {
-                    break;
+            }
+            int chunkCount = Math.min(parallelism, subscriptions.length);
+            ParallelFanOut fanOut = new ParallelFanOut(this, subscriptions, event, postingState.isMainThread,
+                    postingState.tracker, chunkCount);
+            for (int i = 1; i < chunkCount; i++) {
+                executorService.execute(fanOut);
+            }
+            fanOut.runAndAwait();
+        } finally {
+            postingState.parallel = false;
+        }
+    }
+
+    /** Delivers to a {@link ThreadMode#PostThread} subscription for {@link ParallelFanOut}, possibly on a worker. */
+    void deliverInParallel(Subscription subscription, Object event, boolean isMainThread, PostTracker tracker) {
+        postToSubscription(subscription, event, isMainThread, null, tracker);
+    }
+
+    /**
+     * Gets the subscriptions an event of the given class is delivered to, ordered by priority. Once built, this is a
+     * single lock-free lookup.
+     */
+    private Subscription[] getDispatchPlan(Class<?> eventClass) {
+        Subscription[] subscriptions = dispatchPlans.get(eventClass);
+        if (subscriptions == null) {
+            synchronized (registryLock) {
+                subscriptions = dispatchPlans.get(eventClass);
+                if (subscriptions == null) {
+                    subscriptions = buildDispatchPlan(eventClass);
+                    dispatchPlans.put(eventClass, subscriptions);
                 }
             }
-            return true;
         }
-        return false;
+        return subscriptions;
+    }
+
+    // Must be called in synchronized (registryLock) block
+    private Subscription[] buildDispatchPlan(Class<?> eventClass) {
+        if (!eventInheritance) {
+            SubscriptionList subscriptions = subscriptionsByEventType.get(eventClass);
+            return subscriptions != null ? subscriptions.toArray() : NO_SUBSCRIPTIONS;
+        }
+        List<Subscription> plan = new ArrayList<Subscription>();
+        List<Class<?>> eventTypes = lookupAllEventTypes(eventClass);
+        int countTypes = eventTypes.size();
+        for (int h = 0; h < countTypes; h++) {
+            Class<?> eventType = eventTypes.get(h);
+            SubscriptionList subscriptions = subscriptionsByEventType.get(eventType);
+            if (subscriptions != null) {
+                subscriptions.addTo(plan);
+            }
+            // Also for types without subscriptions yet, their first registration must drop this plan
+            Set<Class<?>> eventClasses = dispatchPlansByEventType.get(eventType);
+            if (eventClasses == null) {
+                eventClasses = new HashSet<Class<?>>();
+                dispatchPlansByEventType.put(eventType, eventClasses);
+            }
+            eventClasses.add(eventClass);
+        }
+        // Stable sort: for equal priorities, keeps more specific types and registration order first
+        Collections.sort(plan, PRIORITY_COMPARATOR);
+        return plan.toArray(NO_SUBSCRIPTIONS);
+    }
+
+    /**
+     * @param batchState if not null, events for posters are collected in the batch of the posting thread state
+     * @param tracker    if not null, the delivery is tracked for {@link #post(Object, PostCallback)}
+     */
+    private void postToSubscription(Subscription subscription, Object event, boolean isMainThread,
+                                    PostingThreadState batchState, PostTracker tracker) {
+        RateLimiter rateLimiter = subscription.rateLimiter;
+        if (rateLimiter != null && !rateLimiter.admit(event)) {
+            return;
+        }
+        if (tracker != null) {
+            event = tracker.track(event);
+        }
+        deliverToSubscription(subscription, event, isMainThread, batchState);
     }
 
-    private void postToSubscription(Subscription subscription, Object event, boolean isMainThread) {
+    /**
+     * Delivers an event held back by the subscription's rate limiter; called on the timer thread, which must not run
+     * event handlers: a slow handler would delay all other timers. Held back events of {@link ThreadMode#PostThread}
+     * handlers have no posting thread to run on, so they are delivered like {@link ThreadMode#Async} ones.
+     */
+    void deliverRateLimited(Subscription subscription, Object event) {
+        switch (subscription.subscriberMethod.threadMode) {
+            case BackgroundThread:
+                Object pendingEvent = conflationKeyExtractors != null ? conflate(subscription, event) : event;
+                // Null if the event replaced a pending event
+                if (pendingEvent != null) {
+                    backgroundPoster.enqueue(subscription, pendingEvent);
+                }
+                break;
+            case PostThread:
+                asyncPoster.enqueue(subscription, event);
+                break;
+            default:
+                // MainThread is enqueued, as the timer thread is never the main thread, and Async always is
+                deliverToSubscription(subscription, event, false, null);
+        }
+    }
+
+    void scheduleRateLimiter(RateLimiter rateLimiter, long delayNanos) {
+        timerWheel.schedule(null, rateLimiter, delayNanos);
+    }
+
+    private void deliverToSubscription(Subscription subscription, Object event, boolean isMainThread,
+                                       PostingThreadState batchState) {
         switch (subscription.subscriberMethod.threadMode) {
             case PostThread:
                 invokeSubscriber(subscription, event);
@@ -449,12 +1063,36 @@ public class EventBus {
                 if (isMainThread) {
                     invokeSubscriber(subscription, event);
                 } else {
-                    mainThreadPoster.enqueue(subscription, event);
+                    Object pendingEvent = conflationKeyExtractors != null ? conflate(subscription, event) : event;
+                    // Null if the event replaced a pending event
+                    if (pendingEvent != null) {
+                        if (batchState != null) {
+                            if (batchState.mainThreadBatch == null) {
+                                batchState.mainThreadBatch = new PendingPostQueue();
+                            }
+                            PendingPost pendingPost = obtainPendingPost(subscription, pendingEvent);
+                            batchState.mainThreadBatch.enqueue(pendingPost);
+                        } else {
+                            mainThreadPoster.enqueue(subscription, pendingEvent);
+                        }
+                    }
                 }
                 break;
             case BackgroundThread:
                 if (isMainThread) {
-                    backgroundPoster.enqueue(subscription, event);
+                    Object pendingEvent = conflationKeyExtractors != null ? conflate(subscription, event) : event;
+                    // Null if the event replaced a pending event
+                    if (pendingEvent != null) {
+                        if (batchState != null) {
+                            if (batchState.backgroundBatch == null) {
+                                batchState.backgroundBatch = new PendingPostQueue();
+                            }
+                            PendingPost pendingPost = obtainPendingPost(subscription, pendingEvent);
+                            batchState.backgroundBatch.enqueue(pendingPost);
+                        } else {
+                            backgroundPoster.enqueue(subscription, pendingEvent);
+                        }
+                    }
                 } else {
                     invokeSubscriber(subscription, event);
                 }
@@ -467,6 +1105,38 @@ public class EventBus {
         }
     }
 
+    /**
+     * Lets the given event replace the pending event of the same conflation key for the subscription, if any.
+     *
+     * @return the event or a new conflation slot holding it to enqueue, or null if it replaced a pending event
+     */
+    private Object conflate(Subscription subscription, Object event) {
+        ConflationKeyExtractor<Object> keyExtractor = conflationKeyExtractors.get(event.getClass());
+        if (keyExtractor == null) {
+            return event;
+        }
+        Object key = keyExtractor.getConflationKey(event);
+        ConcurrentMap<Object, ConflationSlot> slots = subscription.getConflationSlots();
+        while (true) {
+            ConflationSlot slot = slots.get(key);
+            if (slot == null) {
+                slot = new ConflationSlot(slots, key, event);
+                if (slots.putIfAbsent(key, slot) == null) {
+                    return slot;
+                }
+            } else if (slot.replace(event)) {
+                conflatedEventCount.incrementAndGet();
+                return null;
+            } else {
+                // Taken for delivery already
+                ConflationSlot newSlot = new ConflationSlot(slots, key, event);
+                if (slots.replace(key, slot, newSlot)) {
+                    return newSlot;
+                }
+            }
+        }
+    }
+
     /** Looks up all Class objects including super classes and interfaces. Should also work for interfaces. */
     private List<Class<?>> lookupAllEventTypes(Class<?> eventClass) {
         synchronized (eventTypesCache) {
@@ -495,6 +1165,17 @@ public class EventBus {
         }
     }
 
+    PendingPost obtainPendingPost(Subscription subscription, Object event) {
+        return pendingPostPooling ? PendingPost.obtainPendingPost(subscription, event) :
+                new PendingPost(event, subscription);
+    }
+
+    void releasePendingPost(PendingPost pendingPost) {
+        if (pendingPostPooling) {
+            PendingPost.releasePendingPost(pendingPost);
+        }
+    }
+
     /**
      * Invokes the subscriber if the subscriptions is still active. Skipping subscriptions prevents race conditions
      * between {@link #unregister(Object)} and event delivery. Otherwise the event might be delivered after the
@@ -504,15 +1185,30 @@ public class EventBus {
     void invokeSubscriber(PendingPost pendingPost) {
         Object event = pendingPost.event;
         Subscription subscription = pendingPost.subscription;
-        PendingPost.releasePendingPost(pendingPost);
-        if (subscription.active) {
+        releasePendingPost(pendingPost);
+        invokeQueuedSubscriber(subscription, event);
+    }
+
+    /**
+     * Like {@link #invokeSubscriber(PendingPost)} for posters that keep the pending event without a pooled PendingPost.
+     */
+    void invokeQueuedSubscriber(Subscription subscription, Object event) {
+        if (event instanceof ConflationSlot) {
+            event = ((ConflationSlot) event).take();
+        }
+        // Tracked deliveries must finish even if the subscription is no longer active
+        if (subscription.active || event instanceof PostTracker.Delivery) {
             invokeSubscriber(subscription, event);
         }
     }
 
     void invokeSubscriber(Subscription subscription, Object event) {
+        if (event instanceof PostTracker.Delivery) {
+            invokeTrackedSubscriber(subscription, (PostTracker.Delivery) event);
+            return;
+        }
         try {
-            subscription.subscriberMethod.method.invoke(subscription.subscriber, event);
+            subscription.subscriberMethod.invoker.invoke(subscription.subscriber, event);
         } catch (InvocationTargetException e) {
             handleSubscriberException(subscription, event, e.getCause());
         } catch (IllegalAccessException e) {
@@ -520,14 +1216,37 @@ public class EventBus {
         }
     }
 
+    private void invokeTrackedSubscriber(Subscription subscription, PostTracker.Delivery delivery) {
+        Object event = delivery.event;
+        SubscriberExceptionEvent exceptionEvent = null;
+        try {
+            if (subscription.active) {
+                try {
+                    Object reply = subscription.subscriberMethod.invoker.invoke(subscription.subscriber, event);
+                    if (reply != null) {
+                        delivery.tracker.onReply(reply);
+                    }
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    exceptionEvent = new SubscriberExceptionEvent(this, cause, event, subscription.subscriber);
+                    handleSubscriberException(subscription, event, cause);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Unexpected exception", e);
+                }
+            }
+        } finally {
+            delivery.tracker.onFinished(exceptionEvent);
+        }
+    }
+
     private void handleSubscriberException(Subscription subscription, Object event, Throwable cause) {
         if (event instanceof SubscriberExceptionEvent) {
             if (logSubscriberExceptions) {
                 // Don't send another SubscriberExceptionEvent to avoid infinite event recursion, just log
-                Log.e(TAG, "SubscriberExceptionEvent subscriber " + subscription.subscriber.getClass()
+                logger.log(Level.SEVERE, "SubscriberExceptionEvent subscriber " + subscription.subscriber.getClass()
                         + " threw an exception", cause);
                 SubscriberExceptionEvent exEvent = (SubscriberExceptionEvent) event;
-                Log.e(TAG, "Initial event " + exEvent.causingEvent + " caused exception in "
+                logger.log(Level.SEVERE, "Initial event " + exEvent.causingEvent + " caused exception in "
                         + exEvent.causingSubscriber, exEvent.throwable);
             }
         } else {
@@ -535,7 +1254,7 @@ public class EventBus {
                 throw new EventBusException("Invoking subscriber failed", cause);
             }
             if (logSubscriberExceptions) {
-                Log.e(TAG, "Could not dispatch event: " + event.getClass() + " to subscribing class "
+                logger.log(Level.SEVERE, "Could not dispatch event: " + event.getClass() + " to subscribing class "
                         + subscription.subscriber.getClass(), cause);
             }
             if (sendSubscriberExceptionEvent) {
@@ -546,22 +1265,85 @@ public class EventBus {
         }
     }
 
-    /** For ThreadLocal, much faster to set (and get multiple values). */
+    /**
+     * For ThreadLocal, much faster to set (and get multiple values). Posting to PostThread subscribers does not
+     * allocate once the event queue (a ring buffer) has grown to its working size, unless subscribers use reflection
+     * invokers.
+     */
     final static class PostingThreadState {
-        final List<Object> eventQueue = new ArrayList<Object>();
+        final ArrayDeque<Object> eventQueue = new ArrayDeque<Object>();
         boolean isPosting;
         boolean isMainThread;
         Subscription subscription;
         Object event;
         boolean canceled;
+        /** True while delivering to subscribers in parallel, see {@link EventBusBuilder#parallelFanOut(int)}. */
+        boolean parallel;
+        /** Not null while dispatching an event posted by {@link #post(Object, PostCallback)}. */
+        PostTracker tracker;
+        /** State of the current postAll() call. */
+        boolean batch;
+        Class<?> batchEventClass;
+        Subscription[] batchSubscriptions;
+        int batchVersion;
+        PendingPostQueue mainThreadBatch;
+        PendingPostQueue backgroundBatch;
     }
 
     ExecutorService getExecutorService() {
         return executorService;
     }
 
-    // Just an idea: we could provide a callback to post() to be notified, an alternative would be events, of course...
-    /* public */interface PostCallback {
+    void onEventDropped() {
+        droppedEventCount.incrementAndGet();
+    }
+
+    void onEventBlocked() {
+        blockedEventCount.incrementAndGet();
+    }
+
+    Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Number of posts discarded because a bounded queue was full, see {@link EventBusBuilder#maxQueueSize(int)}. Posts
+     * failed by {@link OverflowPolicy#Fail} are included.
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * Number of posts that had to wait for room in a bounded queue ({@link OverflowPolicy#Block}), see
+     * {@link EventBusBuilder#maxQueueSize(int)}.
+     */
+    public long getBlockedEventCount() {
+        return blockedEventCount.get();
+    }
+
+    /**
+     * Number of pending posts of each background worker, see {@link EventBusBuilder#backgroundWorkers(int)}. Values
+     * are approximate while events are posted and delivered concurrently.
+     */
+    public int[] getBackgroundQueueDepths() {
+        if (backgroundPoster instanceof PartitionedBackgroundPoster) {
+            return ((PartitionedBackgroundPoster) backgroundPoster).getQueueDepths();
+        } else {
+            return new int[]{backgroundPoster.getQueueDepth()};
+        }
+    }
+
+    /**
+     * Number of events that replaced a pending event instead of being delivered separately, see
+     * {@link EventBusBuilder#conflate(Class)}.
+     */
+    public long getConflatedEventCount() {
+        return conflatedEventCount.get();
+    }
+
+    /** Callback for {@link #post(Object, PostCallback)}. */
+    public interface PostCallback {
         void onPostCompleted(List<SubscriberExceptionEvent> exceptionEvents);
     }
 
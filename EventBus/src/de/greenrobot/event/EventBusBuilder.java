@@ -15,8 +15,13 @@
  */
 package de.greenrobot.event;
 
+import de.greenrobot.event.meta.MethodInvokerFactory;
+import de.greenrobot.event.meta.SubscriberInfoIndex;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -26,6 +31,12 @@ import java.util.concurrent.Executors;
  */
 public class EventBusBuilder {
     private final static ExecutorService DEFAULT_EXECUTOR_SERVICE = Executors.newCachedThreadPool();
+    private final static ConflationKeyExtractor<Object> TYPE_CONFLATION_KEY = new ConflationKeyExtractor<Object>() {
+        @Override
+        public Object getConflationKey(Object event) {
+            return event.getClass();
+        }
+    };
 
     boolean logSubscriberExceptions = true;
     boolean logNoSubscriberMessages = true;
@@ -33,8 +44,29 @@ public class EventBusBuilder {
     boolean sendNoSubscriberEvent = true;
     boolean throwSubscriberException;
     boolean eventInheritance = true;
+    boolean pendingPostPooling = true;
     ExecutorService executorService = DEFAULT_EXECUTOR_SERVICE;
     List<Class<?>> skipMethodVerificationForClasses;
+    List<SubscriberInfoIndex> subscriberInfoIndexes;
+    MethodInvokerFactory methodInvokerFactory = ReflectionMethodInvoker.FACTORY;
+    MainThreadSupport mainThreadSupport;
+    Logger logger;
+    int maxQueueSize;
+    OverflowPolicy overflowPolicy = OverflowPolicy.Block;
+    Map<Class<?>, OverflowPolicy> overflowPolicies;
+    int priorityStarvationLimit;
+    int parallelFanOutThreshold;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    Map<Class<?>, ConflationKeyExtractor<Object>> conflationKeyExtractors;
+    int orderedAsyncThreadPoolSize;
+    boolean asyncVirtualThreads;
+    int backgroundWorkers = 1;
+    Map<Class<?>, PartitionKeyExtractor<Object>> partitionKeyExtractors;
+    int ringBufferSize;
+    WaitStrategy waitStrategy;
+    Map<Class<?>, Map<Class<?>, RateLimiter.Config>> rateLimits;
+    long timerTickMillis = 10;
+    int timerTicksPerWheel = 512;
 
     EventBusBuilder() {
     }
@@ -88,6 +120,17 @@ public class EventBusBuilder {
         return this;
     }
 
+    /**
+     * EventBus reuses the objects holding events queued for {@link ThreadMode#MainThread} and
+     * {@link ThreadMode#BackgroundThread} delivery (default: true), so these do not allocate in steady state. The pool
+     * has a small cache per thread, so threads rarely contend on it. {@link ThreadMode#Async} deliveries always
+     * allocate, as they complete on arbitrary threads. On JVMs with cheap allocation and young generation GC,
+     * switching pooling off may be faster; benchmark your setup to decide.
+     */
+    public EventBusBuilder pendingPostPooling(boolean pendingPostPooling) {
+        this.pendingPostPooling = pendingPostPooling;
+        return this;
+    }
 
     /**
      * Provide a custom thread pool to EventBus used for async and background event delivery. This is an advanced
@@ -98,6 +141,89 @@ public class EventBusBuilder {
         return this;
     }
 
+    /**
+     * Delivers events to {@link ThreadMode#Async} subscribers in posting order using a fixed pool with the given number
+     * of threads owned by the EventBus (default: 0, unordered delivery using the executor service). Each subscriber
+     * method gets a mailbox, which is drained by one pool thread at a time; thus a subscriber method receives events in
+     * order and never concurrently, while different subscribers still run in parallel. Idle pool threads time out.
+     * <p/>
+     * With {@link #maxQueueSize(int)}, the limit applies to each mailbox.
+     */
+    public EventBusBuilder orderedAsyncDelivery(int threadPoolSize) {
+        if (threadPoolSize < 0) {
+            throw new IllegalArgumentException("Thread pool size must not be negative: " + threadPoolSize);
+        }
+        this.orderedAsyncThreadPoolSize = threadPoolSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of workers delivering to {@link ThreadMode#BackgroundThread} subscribers (default: 1). Each
+     * worker delivers its events in order on its own thread of the executor service. Events are assigned to workers by
+     * subscriber, so each subscriber still receives its background events in order and one at a time, while a slow
+     * subscriber only stalls the subscribers sharing its worker. See
+     * {@link #backgroundPartitionKey(Class, PartitionKeyExtractor)} to partition by event instead.
+     *
+     * @see EventBus#getBackgroundQueueDepths()
+     */
+    public EventBusBuilder backgroundWorkers(int backgroundWorkers) {
+        if (backgroundWorkers < 1) {
+            throw new IllegalArgumentException("At least one background worker is required: " + backgroundWorkers);
+        }
+        this.backgroundWorkers = backgroundWorkers;
+        return this;
+    }
+
+    /**
+     * With several {@link #backgroundWorkers(int)}, assigns events of exactly the given class to workers by the key
+     * taken from each event instead of by subscriber. Events with equal keys are delivered in order; events with
+     * different keys may be delivered concurrently, also to the same subscriber.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EventBusBuilder backgroundPartitionKey(Class<T> eventType,
+                                                      PartitionKeyExtractor<? super T> keyExtractor) {
+        if (keyExtractor == null) {
+            throw new NullPointerException("Key extractor must not be null");
+        }
+        if (partitionKeyExtractors == null) {
+            partitionKeyExtractors = new HashMap<Class<?>, PartitionKeyExtractor<Object>>();
+        }
+        partitionKeyExtractors.put(eventType, (PartitionKeyExtractor<Object>) keyExtractor);
+        return this;
+    }
+
+    /**
+     * Backs {@link ThreadMode#BackgroundThread} delivery by a ring buffer of preallocated slots with the given size (a
+     * power of two) instead of a queue (default: off). Each ring buffer has a dedicated daemon thread, which waits for
+     * events using the given strategy; posting threads wait if the ring buffer is full. This suits high event rates
+     * that need low latency. With several {@link #backgroundWorkers(int)}, each worker has its own ring buffer.
+     * {@link #maxQueueSize(int)} does not apply to ring buffers. The thread of a ring buffer is started with the first
+     * event and runs until the process ends, so build EventBus instances using ring buffers once (e.g. as singletons)
+     * rather than per use.
+     */
+    public EventBusBuilder backgroundRingBuffer(int size, WaitStrategy waitStrategy) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of two: " + size);
+        }
+        if (waitStrategy == null) {
+            throw new NullPointerException("Wait strategy must not be null");
+        }
+        this.ringBufferSize = size;
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * Runs each {@link ThreadMode#Async} delivery on a new virtual thread if the runtime supports them (Java 21, or
+     * Java 19 and 20 with preview features enabled) (default: false). Blocked virtual threads don't occupy platform
+     * threads, which suits subscribers doing blocking I/O. Otherwise, the executor service is used as before. Does not
+     * apply to {@link #orderedAsyncDelivery(int)}.
+     */
+    public EventBusBuilder asyncVirtualThreads(boolean asyncVirtualThreads) {
+        this.asyncVirtualThreads = asyncVirtualThreads;
+        return this;
+    }
+
     /**
      * Method name verification is done for methods starting with onEvent to avoid typos; using this method you can
      * exclude subscriber classes from this check. Also disables checks for method modifiers (public, not static nor
@@ -111,6 +237,265 @@ public class EventBusBuilder {
         return this;
     }
 
+    /**
+     * Adds an index generated by EventBus' annotation processor. Subscriber classes found in an index are not scanned
+     * using reflection, which speeds up the first registration of each class considerably. Classes missing in all
+     * indexes are still looked up using reflection.
+     */
+    public EventBusBuilder addIndex(SubscriberInfoIndex index) {
+        if (subscriberInfoIndexes == null) {
+            subscriberInfoIndexes = new ArrayList<SubscriberInfoIndex>();
+        }
+        subscriberInfoIndexes.add(index);
+        return this;
+    }
+
+    /**
+     * Sets the factory creating invokers for event handling methods without a generated invoker (default: reflection).
+     *
+     * @see #lambdaMethodInvokers()
+     */
+    public EventBusBuilder methodInvokerFactory(MethodInvokerFactory methodInvokerFactory) {
+        this.methodInvokerFactory = methodInvokerFactory;
+        return this;
+    }
+
+    /**
+     * Calls event handling methods without a generated invoker through classes spun by LambdaMetafactory, which the JIT
+     * can inline like a direct call, instead of using reflection. Requires Java 8 or later; methods of non-public
+     * subscriber classes still use reflection. Costs some time per subscriber method when first registered.
+     *
+     * @throws EventBusException if java.lang.invoke.LambdaMetafactory is not available (e.g. on Android)
+     */
+    public EventBusBuilder lambdaMethodInvokers() {
+        try {
+            Class.forName("java.lang.invoke.LambdaMetafactory");
+            // Loaded reflectively, so platforms without java.lang.invoke never link it
+            Class<?> factoryClass = Class.forName("de.greenrobot.event.LambdaMethodInvokerFactory");
+            methodInvokerFactory = (MethodInvokerFactory) factoryClass.newInstance();
+        } catch (Exception e) {
+            throw new EventBusException("LambdaMetafactory is not available on this platform", e);
+        } catch (LinkageError e) {
+            throw new EventBusException("LambdaMetafactory is not available on this platform", e);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the main thread used for {@link ThreadMode#MainThread} delivery. By default, this is Android's main thread.
+     * Outside of Android, a {@link JvmMainThreadSupport} shared by all EventBus instances is used by default.
+     */
+    public EventBusBuilder mainThreadSupport(MainThreadSupport mainThreadSupport) {
+        this.mainThreadSupport = mainThreadSupport;
+        return this;
+    }
+
+    /** Set a specific log handler for all EventBus logging (default: Android's Log, or java.util.logging). */
+    public EventBusBuilder logger(Logger logger) {
+        this.logger = logger;
+        return this;
+    }
+
+    /**
+     * Limits the number of pending posts in the queue of each poster: one queue for main thread, background and async
+     * delivery each (default: 0, unbounded). If a queue is full, the overflow policy decides what happens to new posts,
+     * see {@link #overflowPolicy(OverflowPolicy)}. Note: a bounded queue is synchronized, while the unbounded queues of
+     * main thread and background delivery are lock-free.
+     *
+     * @see EventBus#getDroppedEventCount()
+     * @see EventBus#getBlockedEventCount()
+     */
+    public EventBusBuilder maxQueueSize(int maxQueueSize) {
+        if (maxQueueSize < 0) {
+            throw new IllegalArgumentException("Queue size must not be negative: " + maxQueueSize);
+        }
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    /** Sets what happens to posts if a bounded queue is full (default: {@link OverflowPolicy#Block}). */
+    public EventBusBuilder overflowPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new NullPointerException("Overflow policy must not be null");
+        }
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Sets what happens to posts of the given event class if a bounded queue is full. Applies to events of exactly this
+     * class, not to its sub classes.
+     */
+    public EventBusBuilder overflowPolicy(Class<?> eventType, OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new NullPointerException("Overflow policy must not be null");
+        }
+        if (overflowPolicies == null) {
+            overflowPolicies = new HashMap<Class<?>, OverflowPolicy>();
+        }
+        overflowPolicies.put(eventType, overflowPolicy);
+        return this;
+    }
+
+    /**
+     * Configures the timer wheel used by {@link EventBus#postDelayed(Object, long)} (default: 10 ms ticks, 512 ticks
+     * per wheel). Scheduled events are posted with the granularity of a tick; shorter ticks are more precise, but wake
+     * the timer thread more often while events are scheduled. Timers further ahead than one wheel rotation wait in
+     * their bucket for the remaining rounds, so more ticks per wheel means less work per tick for long delays.
+     *
+     * @param ticksPerWheel number of buckets, a power of two
+     */
+    public EventBusBuilder timerWheel(long tickMillis, int ticksPerWheel) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms: " + tickMillis);
+        }
+        if (ticksPerWheel < 1 || Integer.bitCount(ticksPerWheel) != 1) {
+            throw new IllegalArgumentException("Ticks per wheel must be a power of two: " + ticksPerWheel);
+        }
+        this.timerTickMillis = tickMillis;
+        this.timerTicksPerWheel = ticksPerWheel;
+        return this;
+    }
+
+    /**
+     * Delivers events to {@link ThreadMode#PostThread} subscribers in parallel if an event has at least the given
+     * number of subscribers (default: off). The subscribers are split into one chunk per available processor; the
+     * posting thread delivers chunks itself and hands the others to the executor service, and post returns once all
+     * subscribers are done. Subscribers called in parallel thus run on other threads than the posting thread, in no
+     * particular order, and cannot cancel event delivery ({@link EventBus#cancelEventDelivery(Object)} throws).
+     * Subscribers of other thread modes are handled first, in priority order, before any PostThread subscriber; so
+     * subscriber priorities do not order PostThread subscribers against others for such events. This pays off for
+     * events with many subscribers doing some work each; see FanOutBenchmark for the crossover point.
+     */
+    public EventBusBuilder parallelFanOut(int threshold) {
+        return parallelFanOut(threshold, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Like {@link #parallelFanOut(int)}, splitting subscribers into the given number of chunks. */
+    public EventBusBuilder parallelFanOut(int threshold, int parallelism) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelFanOutThreshold = threshold;
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Queues {@link ThreadMode#MainThread} and {@link ThreadMode#BackgroundThread} deliveries in lanes for high (above
+     * 0), normal (0) and low (below 0) subscriber priority, see {@link EventBus#register(Object, int)} (default: off).
+     * Deliveries of higher lanes overtake queued deliveries of lower lanes. To prevent starvation, a waiting lower
+     * lane is served after the given number of deliveries from higher lanes passed it. Within a lane, deliveries stay
+     * in posting order. With {@link #maxQueueSize(int)}, the limit applies to each lane. Does not apply to
+     * {@link #backgroundRingBuffer(int, WaitStrategy)}.
+     */
+    public EventBusBuilder priorityLanes(int starvationLimit) {
+        if (starvationLimit < 1) {
+            throw new IllegalArgumentException("Starvation limit must be positive: " + starvationLimit);
+        }
+        this.priorityStarvationLimit = starvationLimit;
+        return this;
+    }
+
+    /**
+     * Conflates pending events of exactly the given class: for {@link ThreadMode#MainThread} and
+     * {@link ThreadMode#BackgroundThread} subscribers, a new event replaces the not yet delivered event of the same
+     * class, so each subscriber sees at most one pending event of this class. Use this for events of which only the
+     * newest matters, e.g. progress updates.
+     *
+     * @see EventBus#getConflatedEventCount()
+     */
+    public EventBusBuilder conflate(Class<?> eventType) {
+        return conflate(eventType, TYPE_CONFLATION_KEY);
+    }
+
+    /**
+     * Like {@link #conflate(Class)}, but only events with equal keys replace each other; each subscriber sees at most
+     * one pending event per key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EventBusBuilder conflate(Class<T> eventType, ConflationKeyExtractor<? super T> keyExtractor) {
+        if (keyExtractor == null) {
+            throw new NullPointerException("Key extractor must not be null");
+        }
+        if (conflationKeyExtractors == null) {
+            conflationKeyExtractors = new HashMap<Class<?>, ConflationKeyExtractor<Object>>();
+        }
+        conflationKeyExtractors.put(eventType, (ConflationKeyExtractor<Object>) keyExtractor);
+        return this;
+    }
+
+    /**
+     * Throttles the event handlers for the given event type declared by the given subscriber class, for all thread
+     * modes: a handler receives at most one event per window. An event arriving after the window since the last
+     * delivery is delivered right away; events arriving within the window are coalesced, and only the newest of them is
+     * delivered when the window ends. Use this for handlers that must not run too often, e.g. re-layouts or flushes to
+     * disk. Held back events are released by the timer thread, with the granularity of a timer tick, see
+     * {@link #timerWheel(long, int)}, and never run on it: they are delivered by the poster of the handler's thread
+     * mode, and those of {@link ThreadMode#PostThread} handlers like {@link ThreadMode#Async} ones.
+     *
+     * @param subscriberClass the class declaring the event handler methods
+     * @param eventType       the parameter type of the event handler methods
+     */
+    public EventBusBuilder throttle(Class<?> subscriberClass, Class<?> eventType, long windowMillis) {
+        return rateLimit(subscriberClass, eventType, false, windowMillis);
+    }
+
+    /**
+     * Debounces the event handlers for the given event type declared by the given subscriber class, for all thread
+     * modes: events are held back until no further event arrived for the given window, then only the newest event is
+     * delivered. Held back events are delivered like with {@link #throttle(Class, Class, long)}.
+     */
+    public EventBusBuilder debounce(Class<?> subscriberClass, Class<?> eventType, long windowMillis) {
+        return rateLimit(subscriberClass, eventType, true, windowMillis);
+    }
+
+    private EventBusBuilder rateLimit(Class<?> subscriberClass, Class<?> eventType, boolean debounce,
+                                      long windowMillis) {
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("Window must be at least 1 ms: " + windowMillis);
+        }
+        if (rateLimits == null) {
+            rateLimits = new HashMap<Class<?>, Map<Class<?>, RateLimiter.Config>>();
+        }
+        Map<Class<?>, RateLimiter.Config> rateLimitsByEventType = rateLimits.get(subscriberClass);
+        if (rateLimitsByEventType == null) {
+            rateLimitsByEventType = new HashMap<Class<?>, RateLimiter.Config>();
+            rateLimits.put(subscriberClass, rateLimitsByEventType);
+        }
+        rateLimitsByEventType.put(eventType, new RateLimiter.Config(debounce, windowMillis));
+        return this;
+    }
+
+    Logger getLogger() {
+        if (logger != null) {
+            return logger;
+        } else {
+            return getAndroidMainThreadSupport() != null ? new AndroidLogger() : new JavaLogger(EventBus.TAG);
+        }
+    }
+
+    MainThreadSupport getMainThreadSupport() {
+        if (mainThreadSupport != null) {
+            return mainThreadSupport;
+        }
+        MainThreadSupport androidMainThreadSupport = getAndroidMainThreadSupport();
+        return androidMainThreadSupport != null ? androidMainThreadSupport : JvmMainThreadSupport.getDefault();
+    }
+
+    /** @return null if not running on Android */
+    private static MainThreadSupport getAndroidMainThreadSupport() {
+        try {
+            Class.forName("android.os.Looper");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        return AndroidMainThreadSupport.createForMainLooper();
+    }
+
     /**
      * Installs the default EventBus returned by {@link EventBus#getDefault()} using this builders' values. Must be
      * done only once before the first usage of the default EventBus.
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.logging.Level;
+
+/** Logs to java.util.logging, which is used by default outside of Android. */
+public class JavaLogger implements Logger {
+    private final java.util.logging.Logger logger;
+
+    public JavaLogger(String name) {
+        logger = java.util.logging.Logger.getLogger(name);
+    }
+
+    @Override
+    public void log(Level level, String msg) {
+        logger.log(level, msg);
+    }
+
+    @Override
+    public void log(Level level, String msg, Throwable th) {
+        logger.log(level, msg, th);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Main thread support for plain JVMs: a single-threaded executor acts as the main thread. Use {@link #getExecutor()}
+ * to run code as the main thread.
+ */
+public class JvmMainThreadSupport implements MainThreadSupport {
+    private static JvmMainThreadSupport defaultInstance;
+
+    private final ExecutorService executor;
+    private volatile Thread mainThread;
+
+    /** Uses a daemon thread named "EventBus main thread". */
+    public JvmMainThreadSupport() {
+        this(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "EventBus main thread");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** The main thread is created by the given factory. */
+    public JvmMainThreadSupport(final ThreadFactory threadFactory) {
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                // The executor replaces its thread if a runnable throws, so keep track of the latest one
+                Thread thread = threadFactory.newThread(runnable);
+                mainThread = thread;
+                return thread;
+            }
+        });
+    }
+
+    /** Shared by all EventBus instances not configured otherwise when not running on Android. */
+    static synchronized JvmMainThreadSupport getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = new JvmMainThreadSupport();
+        }
+        return defaultInstance;
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return mainThread == Thread.currentThread();
+    }
+
+    @Override
+    public void post(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import de.greenrobot.event.meta.MethodInvoker;
+import de.greenrobot.event.meta.MethodInvokerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates invokers calling event handling methods directly through classes spun by {@link LambdaMetafactory}, like
+ * the invokers of a generated index, see {@link EventBusBuilder#lambdaMethodInvokers()}. Requires Java 8; only loaded
+ * reflectively, so EventBus still runs where java.lang.invoke is missing (e.g. Android). Methods the spun classes could
+ * not link to (e.g. of non-public classes, or of classes not visible to the class loader of EventBus) get a
+ * reflection-based invoker instead.
+ */
+final class LambdaMethodInvokerFactory implements MethodInvokerFactory {
+    private static final MethodType CALL_SAM_TYPE = MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType VOID_CALL_SAM_TYPE = MethodType.methodType(void.class, Object.class,
+            Object.class);
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    @Override
+    public MethodInvoker createInvoker(Method method) {
+        Class<?> subscriberClass = method.getDeclaringClass();
+        Class<?> eventType = method.getParameterTypes()[0];
+        Class<?> returnType = method.getReturnType();
+        if (isLinkable(subscriberClass) && isLinkable(eventType) && isLinkable(returnType)) {
+            try {
+                MethodHandle implMethod = lookup.unreflect(method);
+                if (returnType == void.class) {
+                    VoidCall call = (VoidCall) spin(VoidCall.class, VOID_CALL_SAM_TYPE, implMethod,
+                            MethodType.methodType(void.class, subscriberClass, eventType));
+                    return new VoidCallInvoker(call);
+                } else {
+                    Call call = (Call) spin(Call.class, CALL_SAM_TYPE, implMethod,
+                            MethodType.methodType(Object.class, subscriberClass, eventType));
+                    return new CallInvoker(call);
+                }
+            } catch (Throwable t) {
+                // Fall through to reflection
+            }
+        }
+        return ReflectionMethodInvoker.FACTORY.createInvoker(method);
+    }
+
+    private Object spin(Class<?> samClass, MethodType samType, MethodHandle implMethod, MethodType instantiatedType)
+            throws Throwable {
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(samClass), samType,
+                implMethod, instantiatedType);
+        return callSite.getTarget().invokeWithArguments();
+    }
+
+    /** Spun classes resolve the types they call with the class loader of EventBus, and need public access. */
+    private static boolean isLinkable(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, LambdaMethodInvokerFactory.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /** Implemented by spun classes for event handling methods returning a value. */
+    interface Call {
+        Object call(Object subscriber, Object event);
+    }
+
+    /** Implemented by spun classes for void event handling methods. */
+    interface VoidCall {
+        void call(Object subscriber, Object event);
+    }
+
+    static final class CallInvoker implements MethodInvoker {
+        private final Call call;
+
+        CallInvoker(Call call) {
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object subscriber, Object event) throws InvocationTargetException {
+            try {
+                return call.call(subscriber, event);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    static final class VoidCallInvoker implements MethodInvoker {
+        private final VoidCall call;
+
+        VoidCallInvoker(VoidCall call) {
+            this.call = call;
+        }
+
+        @Override
+        public Object invoke(Object subscriber, Object event) throws InvocationTargetException {
+            try {
+                call.call(subscriber, event);
+                return null;
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+}
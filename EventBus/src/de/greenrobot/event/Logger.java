@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.logging.Level;
+
+/**
+ * Logging used by EventBus. On Android, EventBus logs to Android's Log by default ({@link AndroidLogger}), otherwise it
+ * uses java.util.logging ({@link JavaLogger}). See {@link EventBusBuilder#logger(Logger)}.
+ */
+public interface Logger {
+
+    void log(Level level, String msg);
+
+    void log(Level level, String msg, Throwable th);
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Delivers events in the main thread defined by {@link MainThreadSupport}, see {@link ThreadMode#MainThread}. */
+final class MainThreadPoster implements Runnable, BatchPoster {
+
+    private final PosterQueue queue;
+    private final int maxMillisInsideHandleMessage;
+    private final EventBus eventBus;
+    private final MainThreadSupport mainThreadSupport;
+    private final AtomicBoolean handlerActive = new AtomicBoolean();
+    private final Runnable handlerActivator = new Runnable() {
+        @Override
+        public void run() {
+            activateHandlerIfIdle();
+        }
+    };
+
+    MainThreadPoster(EventBus eventBus, MainThreadSupport mainThreadSupport, PosterQueue queue,
+                     int maxMillisInsideHandleMessage) {
+        this.eventBus = eventBus;
+        this.mainThreadSupport = mainThreadSupport;
+        this.maxMillisInsideHandleMessage = maxMillisInsideHandleMessage;
+        this.queue = queue;
+    }
+
+    public void enqueue(Subscription subscription, Object event) {
+        PendingPost pendingPost = eventBus.obtainPendingPost(subscription, event);
+        if (queue.enqueue(pendingPost)) {
+            activateHandlerIfIdle();
+        }
+    }
+
+    public void enqueueAll(PendingPostQueue pendingPosts) {
+        if (queue.enqueueAll(pendingPosts, handlerActivator)) {
+            activateHandlerIfIdle();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void activateHandlerIfIdle() {
+        if (!handlerActive.get() && handlerActive.compareAndSet(false, true)) {
+            mainThreadSupport.post(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean active = true;
+        try {
+            long started = System.nanoTime();
+            while (true) {
+                PendingPost pendingPost = queue.poll();
+                if (pendingPost == null) {
+                    handlerActive.set(false);
+                    // Check again: a producer may have enqueued while handlerActive was still set
+                    if (queue.isEmpty() || !handlerActive.compareAndSet(false, true)) {
+                        active = false;
+                        return;
+                    }
+                    continue;
+                }
+                eventBus.invokeSubscriber(pendingPost);
+                long timeInMethod = (System.nanoTime() - started) / 1000000;
+                if (timeInMethod >= maxMillisInsideHandleMessage) {
+                    // Stay active, the rescheduled run continues with the remaining posts
+                    mainThreadSupport.post(this);
+                    active = false;
+                    return;
+                }
+            }
+        } finally {
+            if (active) {
+                handlerActive.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+/**
+ * Defines the "main thread" used for {@link ThreadMode#MainThread} delivery. On Android, this is the UI thread
+ * ({@link AndroidMainThreadSupport}). On other platforms, {@link JvmMainThreadSupport} provides a single thread acting
+ * as the main thread. See {@link EventBusBuilder#mainThreadSupport(MainThreadSupport)}.
+ */
+public interface MainThreadSupport {
+
+    /** Called for each post, so implementations should be cheap. */
+    boolean isMainThread();
+
+    /** Runs the given runnable on the main thread. Runnables must be run one after another in the order posted. */
+    void post(Runnable runnable);
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free multi-producer single-consumer queue of pending posts, linked through {@link PendingPost#next} (D. Vyukov's
+ * intrusive MPSC queue). Producers only swap the tail and never block each other. Only a single thread may consume
+ * (poll, isEmpty) at a time; handing consumption over to another thread requires a happens-before edge, which the
+ * posters get from their running flag.
+ * <p/>
+ * A producer may be preempted between swapping the tail and linking its node; the consumer then yields until the link
+ * is visible. The consumer parks while waiting for posts and is unparked by producers.
+ */
+final class MpscPendingPostQueue implements PosterQueue {
+    private static final AtomicReferenceFieldUpdater<MpscPendingPostQueue, PendingPost> TAIL_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(MpscPendingPostQueue.class, PendingPost.class, "tail");
+    private static final AtomicLongFieldUpdater<MpscPendingPostQueue> ENQUEUED_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(MpscPendingPostQueue.class, "enqueuedCount");
+    private static final AtomicLongFieldUpdater<MpscPendingPostQueue> POLLED_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(MpscPendingPostQueue.class, "polledCount");
+
+    /** Placeholder node so the last real node can be detached while producers append. */
+    private final PendingPost stub = new PendingPost(null, null);
+
+    /** Only accessed by the consumer. */
+    private PendingPost head = stub;
+    private volatile PendingPost tail = stub;
+
+    /** Consumer thread parked in {@link #poll(int)}, if any. */
+    private volatile Thread waiter;
+
+    /** Counts for {@link #size()}; polledCount is only written by the consumer. */
+    private volatile long enqueuedCount;
+    private volatile long polledCount;
+
+    public boolean enqueue(PendingPost pendingPost) {
+        if (pendingPost == null) {
+            throw new NullPointerException("null cannot be enqueued");
+        }
+        pendingPost.next = null;
+        ENQUEUED_UPDATER.incrementAndGet(this);
+        PendingPost previous = TAIL_UPDATER.getAndSet(this, pendingPost);
+        previous.next = pendingPost;
+        unparkWaiter();
+        return true;
+    }
+
+    /** Moves all pending posts with a single tail swap. */
+    public boolean enqueueAll(PendingPostQueue pendingPosts, Runnable consumerStarter) {
+        PendingPost first = pendingPosts.head;
+        if (first == null) {
+            return false;
+        }
+        PendingPost last = pendingPosts.tail;
+        ENQUEUED_UPDATER.addAndGet(this, pendingPosts.detachAll());
+        PendingPost previous = TAIL_UPDATER.getAndSet(this, last);
+        previous.next = first;
+        unparkWaiter();
+        return true;
+    }
+
+    private void unparkWaiter() {
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Consumer only. True if there is no pending post, including none being enqueued right now. */
+    public boolean isEmpty() {
+        return head == stub && tail == stub;
+    }
+
+    public int size() {
+        // Read polledCount first, so the difference cannot become negative
+        long polled = polledCount;
+        return (int) (enqueuedCount - polled);
+    }
+
+    /** Consumer only. */
+    public PendingPost poll() {
+        PendingPost first = head;
+        PendingPost next = first.next;
+        if (first == stub) {
+            if (next == null) {
+                if (tail == stub) {
+                    return null;
+                }
+                next = awaitNext(stub);
+            }
+            head = next;
+            first = next;
+            next = next.next;
+        }
+        if (next == null) {
+            if (first != tail) {
+                next = awaitNext(first);
+            } else {
+                // first is the last node: put the stub behind it so it can be detached
+                stub.next = null;
+                PendingPost previous = TAIL_UPDATER.getAndSet(this, stub);
+                previous.next = stub;
+                next = awaitNext(first);
+            }
+        }
+        head = next;
+        POLLED_UPDATER.lazySet(this, polledCount + 1);
+        return first;
+    }
+
+    /** Consumer only. Waits up to the given time for a pending post to arrive. */
+    public PendingPost poll(int maxMillisToWait) throws InterruptedException {
+        PendingPost pendingPost = poll();
+        if (pendingPost != null) {
+            return pendingPost;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillisToWait);
+        waiter = Thread.currentThread();
+        try {
+            while (true) {
+                // Check after publishing the waiter, so a producer either sees the waiter or we see its post
+                pendingPost = poll();
+                if (pendingPost != null) {
+                    return pendingPost;
+                }
+                long nanosLeft = deadline - System.nanoTime();
+                if (nanosLeft <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, nanosLeft);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /** The producer that swapped the tail after the given node has not linked its node yet; wait for it. */
+    private static PendingPost awaitNext(PendingPost pendingPost) {
+        PendingPost next;
+        while ((next = pendingPost.next) == null) {
+            Thread.yield();
+        }
+        return next;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers events to {@link ThreadMode#Async} subscribers in order, see
+ * {@link EventBusBuilder#orderedAsyncDelivery(int)}. Each subscription has a mailbox, which is drained by a single
+ * thread of a fixed pool at a time. A mailbox is only submitted to the pool when it becomes non-empty, not per event.
+ */
+final class OrderedAsyncPoster implements Poster {
+    /** Posts a mailbox delivers before giving other mailboxes a turn. */
+    private static final int MAX_POSTS_PER_RUN = 32;
+
+    private final EventBus eventBus;
+    private final ExecutorService executor;
+
+    OrderedAsyncPoster(EventBus eventBus, int threadPoolSize) {
+        this.eventBus = eventBus;
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "EventBus async #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // Let idle buses release their threads
+        threadPool.allowCoreThreadTimeOut(true);
+        executor = threadPool;
+    }
+
+    public void enqueue(Subscription subscription, Object event) {
+        Mailbox mailbox = subscription.asyncMailbox;
+        if (mailbox == null) {
+            synchronized (subscription) {
+                mailbox = subscription.asyncMailbox;
+                if (mailbox == null) {
+                    mailbox = new Mailbox(eventBus.createPosterQueue("async", true));
+                    subscription.asyncMailbox = mailbox;
+                }
+            }
+        }
+        // Not pooled: pool threads release on arbitrary threads, see PendingPost
+        PendingPost pendingPost = new PendingPost(event, subscription);
+        if (mailbox.queue.enqueue(pendingPost)) {
+            mailbox.scheduleIfIdle();
+        }
+    }
+
+    /** Pending posts of one subscription. */
+    final class Mailbox implements Runnable {
+        private final PosterQueue queue;
+        /** Set while the mailbox is submitted to or running in the pool; its queue relies on a single consumer. */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Mailbox(PosterQueue queue) {
+            this.queue = queue;
+        }
+
+        void scheduleIfIdle() {
+            if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean active = true;
+            try {
+                for (int i = 0; i < MAX_POSTS_PER_RUN; i++) {
+                    PendingPost pendingPost = queue.poll();
+                    if (pendingPost == null) {
+                        scheduled.set(false);
+                        // Check again: a producer may have enqueued while scheduled was still set
+                        if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                            active = false;
+                            return;
+                        }
+                        continue;
+                    }
+                    eventBus.invokeQueuedSubscriber(pendingPost.subscription, pendingPost.event);
+                }
+                // Stay scheduled and give other mailboxes a turn
+                executor.execute(this);
+                active = false;
+            } finally {
+                if (active) {
+                    scheduled.set(false);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+/**
+ * Determines what happens to a post for a {@link ThreadMode#MainThread}, {@link ThreadMode#BackgroundThread} or
+ * {@link ThreadMode#Async} subscriber if the queue of the respective poster is full.
+ *
+ * @see EventBusBuilder#maxQueueSize(int)
+ * @see EventBusBuilder#overflowPolicy(OverflowPolicy)
+ */
+public enum OverflowPolicy {
+    /**
+     * The posting thread waits until the queue has room again. This is the default. No event is lost, but posting may
+     * block the main thread if it posts to background subscribers.
+     */
+    Block,
+
+    /** The new post is discarded, events already queued are delivered. */
+    DropNewest,
+
+    /** The oldest queued post is discarded to make room for the new post. */
+    DropOldest,
+
+    /** Posting throws an {@link EventBusException}. The post is discarded. */
+    Fail
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers an event to the {@link ThreadMode#PostThread} subscriptions of a large dispatch plan in parallel, see
+ * {@link EventBusBuilder#parallelFanOut(int)}. The subscriptions are split into chunks, which are claimed by the
+ * posting thread and by tasks of the executor service. The posting thread keeps claiming chunks until none is left,
+ * so delivery completes even if the executor service is saturated; it then waits for chunks claimed by other threads.
+ */
+final class ParallelFanOut implements Runnable {
+    private final EventBus eventBus;
+    private final Subscription[] subscriptions;
+    private final Object event;
+    private final boolean isMainThread;
+    private final PostTracker tracker;
+    private final int chunkSize;
+    private final int chunkCount;
+    private final AtomicInteger nextChunk = new AtomicInteger();
+    private final CountDownLatch chunksDone;
+    private volatile RuntimeException failure;
+
+    ParallelFanOut(EventBus eventBus, Subscription[] subscriptions, Object event, boolean isMainThread,
+                   PostTracker tracker, int chunkCount) {
+        this.eventBus = eventBus;
+        this.subscriptions = subscriptions;
+        this.event = event;
+        this.isMainThread = isMainThread;
+        this.tracker = tracker;
+        this.chunkCount = chunkCount;
+        chunkSize = (subscriptions.length + chunkCount - 1) / chunkCount;
+        chunksDone = new CountDownLatch(chunkCount);
+    }
+
+    @Override
+    public void run() {
+        int chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+            try {
+                int end = Math.min((chunk + 1) * chunkSize, subscriptions.length);
+                for (int i = chunk * chunkSize; i < end; i++) {
+                    Subscription subscription = subscriptions[i];
+                    if (subscription.subscriberMethod.threadMode == ThreadMode.PostThread) {
+                        eventBus.deliverInParallel(subscription, event, isMainThread, tracker);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // E.g. an EventBusException with throwSubscriberException; rethrown on the posting thread
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                chunksDone.countDown();
+            }
+        }
+    }
+
+    /** Runs chunks on the calling thread until all are claimed, then waits for the others to finish. */
+    void runAndAwait() {
+        run();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                chunksDone.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.Map;
+
+/**
+ * Distributes {@link ThreadMode#BackgroundThread} deliveries over several workers, see
+ * {@link EventBusBuilder#backgroundWorkers(int)}. Posts are partitioned by subscriber, or by a key taken from the
+ * event for event classes with a {@link PartitionKeyExtractor}. Each worker delivers its posts in order.
+ */
+final class PartitionedBackgroundPoster implements BatchPoster {
+    private final BatchPoster[] workers;
+    /** Null if all events are partitioned by subscriber. */
+    private final Map<Class<?>, PartitionKeyExtractor<Object>> partitionKeyExtractors;
+
+    PartitionedBackgroundPoster(BatchPoster[] workers,
+                                Map<Class<?>, PartitionKeyExtractor<Object>> partitionKeyExtractors) {
+        this.workers = workers;
+        this.partitionKeyExtractors = partitionKeyExtractors;
+    }
+
+    public void enqueue(Subscription subscription, Object event) {
+        workers[getWorkerIndex(subscription, event)].enqueue(subscription, event);
+    }
+
+    public void enqueueAll(PendingPostQueue pendingPosts) {
+        PendingPostQueue[] partitions = new PendingPostQueue[workers.length];
+        PendingPost pendingPost;
+        while ((pendingPost = pendingPosts.poll()) != null) {
+            int index = getWorkerIndex(pendingPost.subscription, pendingPost.event);
+            if (partitions[index] == null) {
+                partitions[index] = new PendingPostQueue();
+            }
+            pendingPost.next = null;
+            partitions[index].enqueue(pendingPost);
+        }
+        for (int i = 0; i < partitions.length; i++) {
+            if (partitions[i] != null) {
+                workers[i].enqueueAll(partitions[i]);
+            }
+        }
+    }
+
+    /** @param event the event, or a conflation slot or tracked delivery holding it */
+    private int getWorkerIndex(Subscription subscription, Object event) {
+        if (event instanceof PostTracker.Delivery) {
+            event = ((PostTracker.Delivery) event).event;
+        }
+        int hash;
+        PartitionKeyExtractor<Object> keyExtractor = partitionKeyExtractors != null ?
+                partitionKeyExtractors.get(ConflationSlot.getEventClass(event)) : null;
+        if (keyExtractor != null) {
+            // Slots are not taken before they are enqueued
+            hash = keyExtractor.getPartitionKey(ConflationSlot.peekEvent(event)).hashCode();
+        } else {
+            hash = System.identityHashCode(subscription.subscriber);
+        }
+        // Spread the bits like HashMap does
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return (hash & Integer.MAX_VALUE) % workers.length;
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BatchPoster worker : workers) {
+            depth += worker.getQueueDepth();
+        }
+        return depth;
+    }
+
+    int[] getQueueDepths() {
+        int[] depths = new int[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            depths[i] = workers[i].getQueueDepth();
+        }
+        return depths;
+    }
+}
@@ -18,28 +18,51 @@ package de.greenrobot.event;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Holds an event queued for delivery to a subscription. Pooled for {@link ThreadMode#MainThread} and
+ * {@link ThreadMode#BackgroundThread} delivery: posting threads obtain pending posts and the long-lived main or
+ * background thread releases them, so they flow back to posting threads through the shared pool and steady-state
+ * delivery does not allocate. {@link ThreadMode#Async} deliveries are not pooled, as they are released on arbitrary,
+ * possibly short-lived threads, whose pools would never be used to obtain.
+ */
 final class PendingPost {
-    private final static List<PendingPost> pendingPostPool = new ArrayList<PendingPost>();
+    /** Capacity of the pool of each thread. */
+    private final static int LOCAL_POOL_SIZE = 64;
+    /** Pending posts moved between a thread's pool and the shared pool at once. */
+    private final static int CHUNK_SIZE = LOCAL_POOL_SIZE / 2;
+    /** Don't let the shared pool grow indefinitely */
+    private final static int MAX_SHARED_CHUNKS = 10000 / CHUNK_SIZE;
+
+    private final static ThreadLocal<LocalPool> localPools = new ThreadLocal<LocalPool>() {
+        @Override
+        protected LocalPool initialValue() {
+            return new LocalPool();
+        }
+    };
+    /** Chunks of CHUNK_SIZE pending posts linked via next; threads only lock it once per chunk. */
+    private final static List<PendingPost> sharedChunks = new ArrayList<PendingPost>();
 
     Object event;
     Subscription subscription;
-    PendingPost next;
+    /** Volatile, as producers of {@link MpscPendingPostQueue} link nodes concurrently to the consumer. */
+    volatile PendingPost next;
 
-    private PendingPost(Object event, Subscription subscription) {
+    PendingPost(Object event, Subscription subscription) {
         this.event = event;
         this.subscription = subscription;
     }
 
     static PendingPost obtainPendingPost(Subscription subscription, Object event) {
-        synchronized (pendingPostPool) {
-            int size = pendingPostPool.size();
-            if (size > 0) {
-                PendingPost pendingPost = pendingPostPool.remove(size - 1);
-                pendingPost.event = event;
-                pendingPost.subscription = subscription;
-                pendingPost.next = null;
-                return pendingPost;
-            }
+        LocalPool pool = localPools.get();
+        if (pool.size == 0) {
+            pool.takeChunk();
+        }
+        if (pool.size > 0) {
+            PendingPost pendingPost = pool.pendingPosts[--pool.size];
+            pool.pendingPosts[pool.size] = null;
+            pendingPost.event = event;
+            pendingPost.subscription = subscription;
+            return pendingPost;
         }
         return new PendingPost(event, subscription);
     }
@@ -48,12 +71,52 @@ final class PendingPost {
         pendingPost.event = null;
         pendingPost.subscription = null;
         pendingPost.next = null;
-        synchronized (pendingPostPool) {
-            // Don't let the pool grow indefinitely
-            if (pendingPostPool.size() < 10000) {
-                pendingPostPool.add(pendingPost);
+        LocalPool pool = localPools.get();
+        if (pool.size == LOCAL_POOL_SIZE) {
+            pool.giveChunk();
+        }
+        pool.pendingPosts[pool.size++] = pendingPost;
+    }
+
+    /**
+     * Pool of a single thread. Threads posting events mostly obtain and threads delivering events mostly release, so
+     * pending posts flow between threads through the shared pool in chunks.
+     */
+    private static final class LocalPool {
+        final PendingPost[] pendingPosts = new PendingPost[LOCAL_POOL_SIZE];
+        int size;
+
+        void takeChunk() {
+            PendingPost chunk;
+            synchronized (sharedChunks) {
+                int chunkCount = sharedChunks.size();
+                if (chunkCount == 0) {
+                    return;
+                }
+                chunk = sharedChunks.remove(chunkCount - 1);
+            }
+            while (chunk != null) {
+                PendingPost next = chunk.next;
+                chunk.next = null;
+                pendingPosts[size++] = chunk;
+                chunk = next;
+            }
+        }
+
+        void giveChunk() {
+            PendingPost chunk = null;
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                PendingPost pendingPost = pendingPosts[--size];
+                pendingPosts[size] = null;
+                pendingPost.next = chunk;
+                chunk = pendingPost;
+            }
+            synchronized (sharedChunks) {
+                if (sharedChunks.size() < MAX_SHARED_CHUNKS) {
+                    sharedChunks.add(chunk);
+                }
             }
         }
     }
 
-}
\ No newline at end of file
+}
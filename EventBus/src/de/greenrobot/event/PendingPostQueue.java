@@ -1,10 +1,12 @@
 package de.greenrobot.event;
 
-final class PendingPostQueue {
-    private PendingPost head;
-    private PendingPost tail;
+/** Unbounded synchronized queue of pending posts, also used to collect batches on the posting thread. */
+final class PendingPostQueue implements PosterQueue {
+    PendingPost head;
+    PendingPost tail;
+    private int size;
 
-    synchronized void enqueue(PendingPost pendingPost) {
+    public synchronized boolean enqueue(PendingPost pendingPost) {
         if (pendingPost == null) {
             throw new NullPointerException("null cannot be enqueued");
         }
@@ -16,25 +18,68 @@ final class PendingPostQueue {
         } else {
             throw new IllegalStateException("Head present, but no tail");
         }
+        size++;
         notifyAll();
+        return true;
     }
 
-    synchronized PendingPost poll() {
+    public synchronized boolean enqueueAll(PendingPostQueue pendingPosts, Runnable consumerStarter) {
+        if (pendingPosts.head == null) {
+            return false;
+        }
+        if (tail != null) {
+            tail.next = pendingPosts.head;
+            tail = pendingPosts.tail;
+        } else if (head == null) {
+            head = pendingPosts.head;
+            tail = pendingPosts.tail;
+        } else {
+            throw new IllegalStateException("Head present, but no tail");
+        }
+        size += pendingPosts.size;
+        pendingPosts.head = pendingPosts.tail = null;
+        pendingPosts.size = 0;
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Detaches all pending posts, which stay linked via {@link PendingPost#next}, to move them to another queue.
+     *
+     * @return the number of detached posts
+     */
+    synchronized int detachAll() {
+        int count = size;
+        head = tail = null;
+        size = 0;
+        return count;
+    }
+
+    public synchronized PendingPost poll() {
         PendingPost pendingPost = head;
         if (head != null) {
             head = head.next;
             if (head == null) {
                 tail = null;
             }
+            size--;
         }
         return pendingPost;
     }
 
-    synchronized PendingPost poll(int maxMillisToWait) throws InterruptedException {
+    public synchronized PendingPost poll(int maxMillisToWait) throws InterruptedException {
         if (head == null) {
             wait(maxMillisToWait);
         }
         return poll();
     }
 
+    public synchronized boolean isEmpty() {
+        return head == null;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
 }
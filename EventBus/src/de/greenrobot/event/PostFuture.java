@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** Returned by {@link EventBus#postAsync(Object)}; cannot be cancelled. */
+final class PostFuture implements Future<List<SubscriberExceptionEvent>>, EventBus.PostCallback {
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile List<SubscriberExceptionEvent> exceptionEvents;
+
+    @Override
+    public void onPostCompleted(List<SubscriberExceptionEvent> exceptionEvents) {
+        this.exceptionEvents = exceptionEvents;
+        completed.countDown();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return completed.getCount() == 0;
+    }
+
+    @Override
+    public List<SubscriberExceptionEvent> get() throws InterruptedException, ExecutionException {
+        completed.await();
+        return exceptionEvents;
+    }
+
+    @Override
+    public List<SubscriberExceptionEvent> get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!completed.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return exceptionEvents;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the deliveries of an event posted by {@link EventBus#post(Object, EventBus.PostCallback)} and calls the
+ * callback once the last one finished. Subclasses may collect the values returned by event handling methods, see
+ * {@link ReplyCollector}. Deliveries are tracked by wrapping the event in a {@link Delivery}, which is
+ * queued by posters like any other event and unwrapped by {@link EventBus#invokeSubscriber(Subscription, Object)}.
+ */
+class PostTracker {
+    /** An event on its way to a single subscriber, or to the posting thread's dispatch. */
+    static final class Delivery {
+        final PostTracker tracker;
+        final Object event;
+
+        Delivery(PostTracker tracker, Object event) {
+            this.tracker = tracker;
+            this.event = event;
+        }
+    }
+
+    /** Null for subclasses overriding {@link #onCompleted(List)}. */
+    private final EventBus.PostCallback callback;
+    /** Starts at 1 for dispatching the event on the posting thread. */
+    private final AtomicInteger pendingCount = new AtomicInteger(1);
+    /** Guarded by this, created on first exception. */
+    private List<SubscriberExceptionEvent> exceptionEvents;
+
+    PostTracker(EventBus.PostCallback callback) {
+        this.callback = callback;
+    }
+
+    Delivery track(Object event) {
+        pendingCount.incrementAndGet();
+        return new Delivery(this, event);
+    }
+
+    /** @param exceptionEvent if not null, the delivery failed */
+    void onFinished(SubscriberExceptionEvent exceptionEvent) {
+        if (exceptionEvent != null) {
+            synchronized (this) {
+                if (exceptionEvents == null) {
+                    exceptionEvents = new ArrayList<SubscriberExceptionEvent>(2);
+                }
+                exceptionEvents.add(exceptionEvent);
+            }
+        }
+        if (pendingCount.decrementAndGet() == 0) {
+            List<SubscriberExceptionEvent> result;
+            synchronized (this) {
+                result = exceptionEvents != null ? Collections.unmodifiableList(exceptionEvents) :
+                        Collections.<SubscriberExceptionEvent>emptyList();
+            }
+            onCompleted(result);
+        }
+    }
+
+    void onCompleted(List<SubscriberExceptionEvent> exceptionEvents) {
+        callback.onPostCompleted(exceptionEvents);
+    }
+
+    /** Called with each non-null value returned by a tracked event handling method, before it counts as finished. */
+    void onReply(Object reply) {
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+/** Queue of pending posts used by a poster. Implementations differ in the number of consumers they support. */
+interface PosterQueue {
+
+    /** @return false if the post was discarded because the queue is full */
+    boolean enqueue(PendingPost pendingPost);
+
+    /**
+     * Moves all pending posts of the given queue, which must be confined to the calling thread, to this queue.
+     *
+     * @param consumerStarter run by bounded queues before waiting for room, so the consumer is running to make room
+     *                        even if the caller has not started it yet for the posts enqueued so far
+     * @return false if nothing was enqueued
+     */
+    boolean enqueueAll(PendingPostQueue pendingPosts, Runnable consumerStarter);
+
+    PendingPost poll();
+
+    PendingPost poll(int maxMillisToWait) throws InterruptedException;
+
+    boolean isEmpty();
+
+    /** Number of pending posts; may be slightly off while posts are enqueued or polled concurrently. */
+    int size();
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Poster queue with lanes for high (above 0), normal (0) and low (below 0) subscription priorities, see
+ * {@link EventBusBuilder#priorityLanes(int)}. Polling prefers higher lanes, so high priority deliveries overtake the
+ * backlog of lower priorities. To prevent starvation, a waiting lower lane is served after it was passed over by a
+ * given number of posts from higher lanes. Within a lane, posts are delivered in order. Supports a single consumer
+ * only, like its lanes.
+ */
+final class PriorityPosterQueue implements PosterQueue {
+    private static final int HIGH = 0;
+    private static final int NORMAL = 1;
+    private static final int LOW = 2;
+
+    private final PosterQueue[] lanes;
+    private final int starvationLimit;
+    /** Consumer only: number of posts of higher lanes served while the lane was waiting. */
+    private final int[] passedOver;
+
+    /** Consumer thread parked in {@link #poll(int)}, if any. */
+    private volatile Thread waiter;
+
+    /** @param lanes queues for high, normal and low priority */
+    PriorityPosterQueue(PosterQueue[] lanes, int starvationLimit) {
+        if (lanes.length != 3) {
+            throw new IllegalArgumentException("Expected 3 lanes, got " + lanes.length);
+        }
+        this.lanes = lanes;
+        this.starvationLimit = starvationLimit;
+        passedOver = new int[lanes.length];
+    }
+
+    private static int getLane(Subscription subscription) {
+        int priority = subscription.priority;
+        return priority > 0 ? HIGH : priority == 0 ? NORMAL : LOW;
+    }
+
+    public boolean enqueue(PendingPost pendingPost) {
+        boolean enqueued = lanes[getLane(pendingPost.subscription)].enqueue(pendingPost);
+        if (enqueued) {
+            unparkWaiter();
+        }
+        return enqueued;
+    }
+
+    public boolean enqueueAll(PendingPostQueue pendingPosts, Runnable consumerStarter) {
+        PendingPostQueue[] batches = new PendingPostQueue[lanes.length];
+        PendingPost pendingPost;
+        while ((pendingPost = pendingPosts.poll()) != null) {
+            int lane = getLane(pendingPost.subscription);
+            if (batches[lane] == null) {
+                batches[lane] = new PendingPostQueue();
+            }
+            pendingPost.next = null;
+            batches[lane].enqueue(pendingPost);
+        }
+        boolean enqueued = false;
+        for (int i = 0; i < lanes.length; i++) {
+            if (batches[i] != null) {
+                enqueued |= lanes[i].enqueueAll(batches[i], consumerStarter);
+            }
+        }
+        if (enqueued) {
+            unparkWaiter();
+        }
+        return enqueued;
+    }
+
+    private void unparkWaiter() {
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public PendingPost poll() {
+        // Serve a starving lane first, lowest first
+        for (int lane = LOW; lane > HIGH; lane--) {
+            if (passedOver[lane] >= starvationLimit) {
+                passedOver[lane] = 0;
+                PendingPost pendingPost = lanes[lane].poll();
+                if (pendingPost != null) {
+                    return pendingPost;
+                }
+            }
+        }
+        for (int lane = HIGH; lane <= LOW; lane++) {
+            PendingPost pendingPost = lanes[lane].poll();
+            if (pendingPost != null) {
+                for (int lowerLane = lane + 1; lowerLane <= LOW; lowerLane++) {
+                    if (!lanes[lowerLane].isEmpty()) {
+                        passedOver[lowerLane]++;
+                    }
+                }
+                return pendingPost;
+            }
+        }
+        return null;
+    }
+
+    public PendingPost poll(int maxMillisToWait) throws InterruptedException {
+        PendingPost pendingPost = poll();
+        if (pendingPost != null) {
+            return pendingPost;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillisToWait);
+        waiter = Thread.currentThread();
+        try {
+            while (true) {
+                // Check after publishing the waiter, so a producer either sees the waiter or we see its post
+                pendingPost = poll();
+                if (pendingPost != null) {
+                    return pendingPost;
+                }
+                long nanosLeft = deadline - System.nanoTime();
+                if (nanosLeft <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, nanosLeft);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    public boolean isEmpty() {
+        for (PosterQueue lane : lanes) {
+            if (!lane.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (PosterQueue lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import de.greenrobot.event.meta.MethodInvoker;
+import de.greenrobot.event.reactive.Publisher;
+import de.greenrobot.event.reactive.Subscriber;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the events of a type posted to the bus, see {@link EventBus#asPublisher(Class, ThreadMode, int,
+ * OverflowPolicy)}. Each reactive subscriber gets its own {@link Stream}, which is registered to the bus like a
+ * subscriber with a single event handling method, so events reach it by the usual thread modes and posters.
+ */
+final class PublisherAdapter<T> implements Publisher<T> {
+    private final EventBus eventBus;
+    private final Class<T> eventType;
+    private final ThreadMode threadMode;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+
+    PublisherAdapter(EventBus eventBus, Class<T> eventType, ThreadMode threadMode, int bufferSize,
+                     OverflowPolicy overflowPolicy) {
+        this.eventBus = eventBus;
+        this.eventType = eventType;
+        this.threadMode = threadMode;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        Stream<T> stream = new Stream<T>(this, subscriber);
+        subscriber.onSubscribe(stream);
+        stream.register();
+    }
+
+    /**
+     * Event handling method and reactive subscription in one. Events are buffered until requested; onNext is called
+     * by a drain loop, which runs on whichever thread delivered an event or requested more and makes sure only one
+     * thread signals the subscriber at a time.
+     */
+    static final class Stream<T> implements de.greenrobot.event.reactive.Subscription, MethodInvoker {
+        private final PublisherAdapter<T> publisher;
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        /** Number of drain requests; only the thread increasing it from 0 drains. */
+        private final AtomicInteger drainCount = new AtomicInteger();
+
+        // Guarded by this
+        private final ArrayDeque<T> buffer = new ArrayDeque<T>();
+        private boolean registered;
+        private volatile boolean cancelled;
+        /** Terminal failure to signal by the drain loop. */
+        private volatile Throwable error;
+
+        Stream(PublisherAdapter<T> publisher, Subscriber<? super T> subscriber) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+        }
+
+        synchronized void register() {
+            if (!cancelled) {
+                SubscriberMethod subscriberMethod = new SubscriberMethod(Stream.class, "onNext", this,
+                        publisher.threadMode, publisher.eventType);
+                publisher.eventBus.register(this, subscriberMethod);
+                registered = true;
+            }
+        }
+
+        /** Called by the bus for each event. */
+        @Override
+        public Object invoke(Object target, Object event) throws InvocationTargetException {
+            if (offer(publisher.eventType.cast(event))) {
+                try {
+                    drain();
+                } catch (RuntimeException e) {
+                    // Thrown by the reactive subscriber; let the bus handle it like any subscriber exception
+                    throw new InvocationTargetException(e);
+                }
+            }
+            return null;
+        }
+
+        private synchronized boolean offer(T event) {
+            EventBus eventBus = publisher.eventBus;
+            boolean blocked = false;
+            while (!cancelled && buffer.size() >= publisher.bufferSize) {
+                switch (publisher.overflowPolicy) {
+                    case Block:
+                        if (!blocked) {
+                            blocked = true;
+                            eventBus.onEventBlocked();
+                        }
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            eventBus.onEventDropped();
+                            return false;
+                        }
+                        break;
+                    case DropNewest:
+                        eventBus.onEventDropped();
+                        return false;
+                    case DropOldest:
+                        buffer.poll();
+                        eventBus.onEventDropped();
+                        break;
+                    case Fail:
+                        eventBus.onEventDropped();
+                        error = new EventBusException("The buffer of the publisher for " + publisher.eventType
+                                + " is full (" + publisher.bufferSize + "), the subscriber requested too little");
+                        cancelInternal();
+                        return true;
+                    default:
+                        throw new IllegalStateException("Unknown overflow policy: " + publisher.overflowPolicy);
+                }
+            }
+            if (cancelled) {
+                return false;
+            }
+            buffer.add(event);
+            return true;
+        }
+
+        private synchronized T poll() {
+            T event = buffer.poll();
+            if (event != null && publisher.overflowPolicy == OverflowPolicy.Block) {
+                notifyAll();
+            }
+            return event;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested elements must be positive: " + n);
+                cancelInternal();
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n;
+                    if (next < 0) {
+                        // Overflow: unbounded
+                        next = Long.MAX_VALUE;
+                    }
+                } while (!requested.compareAndSet(current, next));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelInternal();
+        }
+
+        private synchronized void cancelInternal() {
+            if (!cancelled) {
+                cancelled = true;
+                if (registered) {
+                    publisher.eventBus.unregister(this);
+                }
+                buffer.clear();
+                notifyAll();
+            }
+        }
+
+        private void drain() {
+            if (drainCount.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && !cancelled) {
+                    T event = poll();
+                    if (event == null) {
+                        break;
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (RuntimeException e) {
+                        // Subscribers must not throw, consider the subscription cancelled
+                        cancelInternal();
+                        throw e;
+                    }
+                    emitted++;
+                }
+                Throwable failure = error;
+                if (failure != null) {
+                    error = null;
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (cancelled) {
+                    return;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = drainCount.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
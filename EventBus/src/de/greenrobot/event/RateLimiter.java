@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate control of a single subscription, see {@link EventBusBuilder#throttle(Class, Class, long)} and
+ * {@link EventBusBuilder#debounce(Class, Class, long)}. Suppressed events only replace the held back event; the
+ * coalesced delivery is done by one timer of the bus' {@link TimerWheel} per window, so no thread is woken per event.
+ */
+final class RateLimiter {
+    /** Rate limit declared for an event handler. */
+    static final class Config {
+        final boolean debounce;
+        final long windowNanos;
+
+        Config(boolean debounce, long windowMillis) {
+            this.debounce = debounce;
+            this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        }
+    }
+
+    private final EventBus eventBus;
+    private final Subscription subscription;
+    private final boolean debounce;
+    private final long windowNanos;
+
+    // Guarded by this
+    private Object heldEvent;
+    private boolean timerScheduled;
+    /** Debounce: time of the newest event. Throttle: time of the last delivery. */
+    private long lastNanos;
+    private boolean delivered;
+
+    RateLimiter(EventBus eventBus, Subscription subscription, Config config) {
+        this.eventBus = eventBus;
+        this.subscription = subscription;
+        this.debounce = config.debounce;
+        this.windowNanos = config.windowNanos;
+    }
+
+    /** @return true if the event is to be delivered right away, false if it is held back */
+    synchronized boolean admit(Object event) {
+        long now = System.nanoTime();
+        if (debounce) {
+            heldEvent = event;
+            lastNanos = now;
+            if (!timerScheduled) {
+                timerScheduled = true;
+                eventBus.scheduleRateLimiter(this, windowNanos);
+            }
+            return false;
+        }
+        if (!timerScheduled && (!delivered || now - lastNanos >= windowNanos)) {
+            delivered = true;
+            lastNanos = now;
+            return true;
+        }
+        heldEvent = event;
+        if (!timerScheduled) {
+            timerScheduled = true;
+            eventBus.scheduleRateLimiter(this, lastNanos + windowNanos - now);
+        }
+        return false;
+    }
+
+    /** Called on the timer thread when the window of the held back event ended. */
+    void onTimer() {
+        Object event;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (debounce) {
+                long quietNanos = now - lastNanos;
+                if (quietNanos < windowNanos) {
+                    // Events arrived after the timer was scheduled, wait for the window after the newest one
+                    eventBus.scheduleRateLimiter(this, windowNanos - quietNanos);
+                    return;
+                }
+            } else {
+                delivered = true;
+                lastNanos = now;
+            }
+            event = heldEvent;
+            heldEvent = null;
+            timerScheduled = false;
+        }
+        if (event != null && subscription.active) {
+            eventBus.deliverRateLimited(subscription, event);
+        }
+    }
+}
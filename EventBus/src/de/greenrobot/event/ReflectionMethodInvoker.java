@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import de.greenrobot.event.meta.MethodInvoker;
+import de.greenrobot.event.meta.MethodInvokerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/** Fallback invoker used for subscribers without a generated invoker. */
+final class ReflectionMethodInvoker implements MethodInvoker {
+    static final MethodInvokerFactory FACTORY = new MethodInvokerFactory() {
+        @Override
+        public MethodInvoker createInvoker(Method method) {
+            return new ReflectionMethodInvoker(method);
+        }
+    };
+
+    private final Method method;
+
+    ReflectionMethodInvoker(Method method) {
+        this.method = method;
+    }
+
+    @Override
+    public Object invoke(Object subscriber, Object event) throws IllegalAccessException, InvocationTargetException {
+        return method.invoke(subscriber, event);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handle returned by {@link EventBus#registerWithHandle(Object)}; {@link #close()} unregisters the subscriber like
+ * {@link EventBus#unregister(Object)}. The handle references the subscriber's subscriptions directly, so closing it
+ * does not look up or scan anything, and it does not depend on the subscriber's equals and hashCode.
+ */
+public final class Registration implements Closeable {
+    private final EventBus eventBus;
+    final Object subscriber;
+    /** Guarded by the registry lock of the bus. */
+    final List<Subscription> subscriptions = new ArrayList<Subscription>(4);
+    /** Guarded by the registry lock of the bus. */
+    boolean registered = true;
+
+    Registration(EventBus eventBus, Object subscriber) {
+        this.eventBus = eventBus;
+        this.subscriber = subscriber;
+    }
+
+    /** Unregisters the subscriber; does nothing if it was unregistered already. */
+    @Override
+    public void close() {
+        eventBus.unregister(this);
+    }
+
+    public boolean isRegistered() {
+        return eventBus.isRegistered(this);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the replies to {@link EventBus#request(Object, Class, long)}: values returned by event handling methods are
+ * passed to {@link #onReply(Object)} by the thread delivering the event. Requesting threads wait for the first reply or
+ * for all deliveries to finish.
+ */
+final class ReplyCollector<R> extends PostTracker {
+    private final Class<R> replyType;
+    // Guarded by this
+    private final List<R> replies = new ArrayList<R>(4);
+    private boolean completed;
+
+    ReplyCollector(Class<R> replyType) {
+        super(null);
+        this.replyType = replyType;
+    }
+
+    @Override
+    void onReply(Object reply) {
+        if (replyType.isInstance(reply)) {
+            synchronized (this) {
+                replies.add(replyType.cast(reply));
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    synchronized void onCompleted(List<SubscriberExceptionEvent> exceptionEvents) {
+        completed = true;
+        notifyAll();
+    }
+
+    /** @return the first reply, or null if there was none within the timeout */
+    synchronized R awaitFirst(long timeoutMillis) {
+        awaitUntil(true, timeoutMillis);
+        return replies.isEmpty() ? null : replies.get(0);
+    }
+
+    /** @return the replies received until all deliveries finished or the timeout elapsed */
+    synchronized List<R> awaitAll(long timeoutMillis) {
+        awaitUntil(false, timeoutMillis);
+        return new ArrayList<R>(replies);
+    }
+
+    // Must be called in synchronized block
+    private void awaitUntil(boolean firstReply, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!completed && !(firstReply && !replies.isEmpty())) {
+            long millisLeft = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (millisLeft <= 0) {
+                return;
+            }
+            try {
+                wait(millisLeft);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+/**
+ * Combines the replies of subscribers to a request, see
+ * {@link EventBus#request(Object, Class, Object, ReplyReducer, long)}.
+ */
+public interface ReplyReducer<R> {
+    /**
+     * @param accumulated the identity passed to the request for the first reply, the previously returned value
+     *                    afterwards
+     */
+    R reduce(R accumulated, R reply);
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Background poster backed by a ring of preallocated slots (Disruptor style), see
+ * {@link EventBusBuilder#backgroundRingBuffer(int, WaitStrategy)}. Producers claim sequences with a single atomic
+ * increment and publish a slot by writing its sequence; a dedicated consumer thread delivers the slots in sequence
+ * order. No PendingPost is allocated or pooled. If the ring is full, producers wait for the consumer.
+ */
+final class RingBufferPoster implements Runnable, BatchPoster {
+    /** Spins before parking with {@link WaitStrategy#Park}. */
+    private static final int SPIN_TRIES = 100;
+
+    private final EventBus eventBus;
+    private final WaitStrategy waitStrategy;
+    private final Slot[] slots;
+    private final int mask;
+
+    /** Next sequence to claim by producers. */
+    private final AtomicLong nextSequence = new AtomicLong();
+    /** Next sequence to deliver, only written by the consumer. */
+    private volatile long consumerSequence;
+    private final AtomicBoolean consumerStarted = new AtomicBoolean();
+    private volatile Thread consumer;
+    /** Set by a consumer about to park with {@link WaitStrategy#Park}. */
+    private volatile boolean consumerParking;
+
+    RingBufferPoster(EventBus eventBus, int size, WaitStrategy waitStrategy) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of two: " + size);
+        }
+        this.eventBus = eventBus;
+        this.waitStrategy = waitStrategy;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i - size;
+        }
+        mask = size - 1;
+    }
+
+    public void enqueue(Subscription subscription, Object event) {
+        long sequence = nextSequence.getAndIncrement();
+        publish(sequence, subscription, event);
+        signalConsumer();
+    }
+
+    public void enqueueAll(PendingPostQueue pendingPosts) {
+        int count = pendingPosts.size();
+        if (count == 0) {
+            return;
+        }
+        long sequence = nextSequence.getAndAdd(count);
+        PendingPost pendingPost;
+        while ((pendingPost = pendingPosts.poll()) != null) {
+            publish(sequence++, pendingPost.subscription, pendingPost.event);
+            eventBus.releasePendingPost(pendingPost);
+        }
+        signalConsumer();
+    }
+
+    public int getQueueDepth() {
+        long consumed = consumerSequence;
+        return (int) Math.max(0, nextSequence.get() - consumed);
+    }
+
+    private void publish(long sequence, Subscription subscription, Object event) {
+        long wrapPoint = sequence - slots.length;
+        int tries = 0;
+        while (wrapPoint >= consumerSequence) {
+            // Ring is full, wait for the consumer
+            startConsumerIfNeeded();
+            tries = idle(tries);
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.subscription = subscription;
+        slot.event = event;
+        // Volatile write publishes the slot
+        slot.sequence = sequence;
+    }
+
+    private void signalConsumer() {
+        startConsumerIfNeeded();
+        if (consumerParking) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void startConsumerIfNeeded() {
+        if (!consumerStarted.get() && consumerStarted.compareAndSet(false, true)) {
+            Thread thread = new Thread(this, "EventBus background ring");
+            thread.setDaemon(true);
+            consumer = thread;
+            thread.start();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            consume();
+        } finally {
+            // Only gets here if something beyond a delivery failed; let the next producer start a new consumer
+            consumerParking = false;
+            consumerStarted.set(false);
+            if (nextSequence.get() != consumerSequence) {
+                startConsumerIfNeeded();
+            }
+        }
+    }
+
+    private void consume() {
+        long sequence = consumerSequence;
+        int tries = 0;
+        while (true) {
+            Slot slot = slots[(int) sequence & mask];
+            if (slot.sequence != sequence) {
+                if (waitStrategy == WaitStrategy.Park && tries >= SPIN_TRIES) {
+                    consumerParking = true;
+                    // Check again after announcing to park, so a producer either sees the flag or we see its slot
+                    if (slot.sequence != sequence) {
+                        LockSupport.park(this);
+                    }
+                    consumerParking = false;
+                    tries = 0;
+                } else {
+                    tries = idle(tries);
+                }
+                continue;
+            }
+            tries = 0;
+            Subscription subscription = slot.subscription;
+            Object event = slot.event;
+            slot.subscription = null;
+            slot.event = null;
+            consumerSequence = ++sequence;
+            try {
+                eventBus.invokeQueuedSubscriber(subscription, event);
+            } catch (Throwable t) {
+                // The ring has only one consumer thread, which must not die, not even for an Error
+                eventBus.getLogger().log(Level.SEVERE, "Could not deliver " + event + " to " +
+                        subscription.subscriber.getClass(), t);
+            }
+        }
+    }
+
+    /** @return the updated number of tries */
+    private int idle(int tries) {
+        switch (waitStrategy) {
+            case BusySpin:
+                return tries;
+            case Yield:
+                Thread.yield();
+                return tries;
+            case Park:
+                if (tries < SPIN_TRIES) {
+                    return tries + 1;
+                }
+                // Only producers waiting for room in the ring get here, the consumer parks in run()
+                LockSupport.parkNanos(this, 10000);
+                return tries;
+            default:
+                throw new IllegalStateException("Unknown wait strategy: " + waitStrategy);
+        }
+    }
+
+    /** A preallocated slot of the ring. */
+    static final class Slot {
+        Subscription subscription;
+        Object event;
+        /** Sequence of the event in this slot; the slot is published once this is set to the claimed sequence. */
+        volatile long sequence;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Token for an event scheduled by {@link EventBus#postDelayed(Object, long)} or {@link EventBus#postAt(Object, long)};
+ * pass it to {@link EventBus#cancelScheduled(ScheduledPost)} to cancel the post. The token is also the timer's entry in
+ * the timer wheel, so scheduling allocates nothing else.
+ */
+public final class ScheduledPost {
+    static final int WAITING = 0;
+    static final int CANCELLED = 1;
+    static final int EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<ScheduledPost> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ScheduledPost.class, "state");
+
+    /** Cleared on cancellation, so a cancelled post waiting for removal does not keep its event reachable. */
+    volatile Object event;
+    /** If not null, the timer is for this rate limiter instead of posting an event. */
+    final RateLimiter rateLimiter;
+    /** Nanoseconds since the timer wheel was started. */
+    final long deadlineNanos;
+    private volatile int state;
+
+    /** Guarded by the timer wheel's pending lock. */
+    ScheduledPost nextPending;
+    /** Timer thread only. */
+    long remainingRounds;
+    /** Timer thread only: links within the wheel bucket. */
+    ScheduledPost prev;
+    ScheduledPost next;
+    int bucket;
+
+    ScheduledPost(Object event, RateLimiter rateLimiter, long deadlineNanos) {
+        this.event = event;
+        this.rateLimiter = rateLimiter;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    boolean cancel() {
+        if (STATE_UPDATER.compareAndSet(this, WAITING, CANCELLED)) {
+            event = null;
+            return true;
+        }
+        return false;
+    }
+
+    /** @return false if the post was cancelled before */
+    boolean expire() {
+        return STATE_UPDATER.compareAndSet(this, WAITING, EXPIRED);
+    }
+
+    boolean isCancelled() {
+        return state == CANCELLED;
+    }
+}
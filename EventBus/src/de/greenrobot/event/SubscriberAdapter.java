@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import de.greenrobot.event.reactive.Subscriber;
+import de.greenrobot.event.reactive.Subscription;
+
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Posts the elements of a reactive publisher to the bus, see {@link EventBus#asSubscriber(int)}. Demand is replenished
+ * by one element each time a post completed, so no more than maxInFlight posts are in flight.
+ */
+final class SubscriberAdapter implements Subscriber<Object>, EventBus.PostCallback {
+    private final EventBus eventBus;
+    private final int maxInFlight;
+    private volatile Subscription subscription;
+
+    SubscriberAdapter(EventBus eventBus, int maxInFlight) {
+        this.eventBus = eventBus;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        if (this.subscription != null) {
+            // Only a single subscription is allowed
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(maxInFlight);
+    }
+
+    @Override
+    public void onNext(Object element) {
+        eventBus.post(element, this);
+    }
+
+    @Override
+    public void onPostCompleted(List<SubscriberExceptionEvent> exceptionEvents) {
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        eventBus.getLogger().log(Level.SEVERE, "Publisher posting to the bus failed", throwable);
+    }
+
+    @Override
+    public void onComplete() {
+    }
+}
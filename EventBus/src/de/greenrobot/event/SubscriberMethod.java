@@ -15,17 +15,22 @@
  */
 package de.greenrobot.event;
 
-import java.lang.reflect.Method;
+import de.greenrobot.event.meta.MethodInvoker;
 
 final class SubscriberMethod {
-    final Method method;
+    final Class<?> declaringClass;
+    final String methodName;
+    final MethodInvoker invoker;
     final ThreadMode threadMode;
     final Class<?> eventType;
     /** Used for efficient comparison */
     String methodString;
 
-    SubscriberMethod(Method method, ThreadMode threadMode, Class<?> eventType) {
-        this.method = method;
+    SubscriberMethod(Class<?> declaringClass, String methodName, MethodInvoker invoker, ThreadMode threadMode,
+                     Class<?> eventType) {
+        this.declaringClass = declaringClass;
+        this.methodName = methodName;
+        this.invoker = invoker;
         this.threadMode = threadMode;
         this.eventType = eventType;
     }
@@ -47,8 +52,8 @@ final class SubscriberMethod {
         if (methodString == null) {
             // Method.toString has more overhead, just take relevant parts of the method
             StringBuilder builder = new StringBuilder(64);
-            builder.append(method.getDeclaringClass().getName());
-            builder.append('#').append(method.getName());
+            builder.append(declaringClass.getName());
+            builder.append('#').append(methodName);
             builder.append('(').append(eventType.getName());
             methodString = builder.toString();
         }
@@ -56,6 +61,7 @@ final class SubscriberMethod {
 
     @Override
     public int hashCode() {
-        return method.hashCode();
+        // Same as Method.hashCode()
+        return declaringClass.getName().hashCode() ^ methodName.hashCode();
     }
 }
\ No newline at end of file
@@ -15,7 +15,11 @@
  */
 package de.greenrobot.event;
 
-import android.util.Log;
+import de.greenrobot.event.meta.MethodInvoker;
+import de.greenrobot.event.meta.MethodInvokerFactory;
+import de.greenrobot.event.meta.SubscriberInfo;
+import de.greenrobot.event.meta.SubscriberInfoIndex;
+import de.greenrobot.event.meta.SubscriberMethodInfo;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -25,6 +29,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 class SubscriberMethodFinder {
     private static final String ON_EVENT_METHOD_NAME = "onEvent";
@@ -38,11 +43,23 @@ class SubscriberMethodFinder {
     private static final int SYNTHETIC = 0x1000;
 
     private static final int MODIFIERS_IGNORE = Modifier.ABSTRACT | Modifier.STATIC | BRIDGE | SYNTHETIC;
-    private static final Map<String, List<SubscriberMethod>> methodCache = new HashMap<String, List<SubscriberMethod>>();
 
     private final Map<Class<?>, Class<?>> skipMethodVerificationForClasses;
+    private final List<SubscriberInfoIndex> subscriberInfoIndexes;
+    private final MethodInvokerFactory methodInvokerFactory;
+    private final Logger logger;
+    /**
+     * Per finder, because the found methods depend on the indexes and carry invokers created by the factory of the
+     * bus. Keyed by class name.
+     */
+    private final Map<String, List<SubscriberMethod>> methodCache = new HashMap<String, List<SubscriberMethod>>();
 
-    SubscriberMethodFinder(List<Class<?>> skipMethodVerificationForClassesList) {
+    SubscriberMethodFinder(List<Class<?>> skipMethodVerificationForClassesList,
+                           List<SubscriberInfoIndex> subscriberInfoIndexes, MethodInvokerFactory methodInvokerFactory,
+                           Logger logger) {
+        this.logger = logger;
+        this.subscriberInfoIndexes = subscriberInfoIndexes;
+        this.methodInvokerFactory = methodInvokerFactory;
         skipMethodVerificationForClasses = new ConcurrentHashMap<Class<?>, Class<?>>();
         if (skipMethodVerificationForClassesList != null) {
             for (Class<?> clazz : skipMethodVerificationForClassesList) {
@@ -71,47 +88,11 @@ class SubscriberMethodFinder {
                 break;
             }
 
-            // Starting with EventBus 2.2 we enforced methods to be public (might change with annotations again)
-            Method[] methods = clazz.getDeclaredMethods();
-            for (Method method : methods) {
-                String methodName = method.getName();
-                if (methodName.startsWith(ON_EVENT_METHOD_NAME)) {
-                    int modifiers = method.getModifiers();
-                    if ((modifiers & Modifier.PUBLIC) != 0 && (modifiers & MODIFIERS_IGNORE) == 0) {
-                        Class<?>[] parameterTypes = method.getParameterTypes();
-                        if (parameterTypes.length == 1) {
-                            String modifierString = methodName.substring(ON_EVENT_METHOD_NAME.length());
-                            ThreadMode threadMode;
-                            if (modifierString.length() == 0) {
-                                threadMode = ThreadMode.PostThread;
-                            } else if (modifierString.equals("MainThread")) {
-                                threadMode = ThreadMode.MainThread;
-                            } else if (modifierString.equals("BackgroundThread")) {
-                                threadMode = ThreadMode.BackgroundThread;
-                            } else if (modifierString.equals("Async")) {
-                                threadMode = ThreadMode.Async;
-                            } else {
-                                if (skipMethodVerificationForClasses.containsKey(clazz)) {
-                                    continue;
-                                } else {
-                                    throw new EventBusException("Illegal onEvent method, check for typos: " + method);
-                                }
-                            }
-                            Class<?> eventType = parameterTypes[0];
-                            methodKeyBuilder.setLength(0);
-                            methodKeyBuilder.append(methodName);
-                            methodKeyBuilder.append('>').append(eventType.getName());
-                            String methodKey = methodKeyBuilder.toString();
-                            if (eventTypesFound.add(methodKey)) {
-                                // Only add if not already found in a sub class
-                                subscriberMethods.add(new SubscriberMethod(method, threadMode, eventType));
-                            }
-                        }
-                    } else if (!skipMethodVerificationForClasses.containsKey(clazz)) {
-                        Log.d(EventBus.TAG, "Skipping method (not public, static or abstract): " + clazz + "."
-                                + methodName);
-                    }
-                }
+            SubscriberInfo subscriberInfo = getSubscriberInfo(clazz);
+            if (subscriberInfo != null) {
+                findUsingInfo(subscriberInfo, subscriberMethods, eventTypesFound, methodKeyBuilder);
+            } else {
+                findUsingReflection(clazz, subscriberMethods, eventTypesFound, methodKeyBuilder);
             }
             clazz = clazz.getSuperclass();
         }
@@ -126,7 +107,95 @@ class SubscriberMethodFinder {
         }
     }
 
-    static void clearCaches() {
+    private SubscriberInfo getSubscriberInfo(Class<?> clazz) {
+        if (subscriberInfoIndexes != null) {
+            for (SubscriberInfoIndex index : subscriberInfoIndexes) {
+                SubscriberInfo info = index.getSubscriberInfo(clazz);
+                if (info != null) {
+                    return info;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Uses a generated index entry, which was verified at compile time, instead of scanning all declared methods. */
+    private void findUsingInfo(SubscriberInfo subscriberInfo, List<SubscriberMethod> subscriberMethods,
+                               HashSet<String> eventTypesFound, StringBuilder methodKeyBuilder) {
+        Class<?> clazz = subscriberInfo.getSubscriberClass();
+        for (SubscriberMethodInfo methodInfo : subscriberInfo.getSubscriberMethods()) {
+            String methodName = methodInfo.getMethodName();
+            Class<?> eventType = methodInfo.getEventType();
+            if (eventTypesFound.add(buildMethodKey(methodKeyBuilder, methodName, eventType))) {
+                MethodInvoker invoker = methodInfo.getInvoker();
+                if (invoker == null) {
+                    Method method;
+                    try {
+                        method = clazz.getDeclaredMethod(methodName, eventType);
+                    } catch (NoSuchMethodException e) {
+                        throw new EventBusException("Indexed method " + methodName + " not found in " + clazz
+                                + ", the index may be outdated", e);
+                    }
+                    invoker = methodInvokerFactory.createInvoker(method);
+                }
+                subscriberMethods.add(new SubscriberMethod(clazz, methodName, invoker, methodInfo.getThreadMode(),
+                        eventType));
+            }
+        }
+    }
+
+    private void findUsingReflection(Class<?> clazz, List<SubscriberMethod> subscriberMethods,
+                                     HashSet<String> eventTypesFound, StringBuilder methodKeyBuilder) {
+        // Starting with EventBus 2.2 we enforced methods to be public (might change with annotations again)
+        Method[] methods = clazz.getDeclaredMethods();
+        for (Method method : methods) {
+            String methodName = method.getName();
+            if (methodName.startsWith(ON_EVENT_METHOD_NAME)) {
+                int modifiers = method.getModifiers();
+                if ((modifiers & Modifier.PUBLIC) != 0 && (modifiers & MODIFIERS_IGNORE) == 0) {
+                    Class<?>[] parameterTypes = method.getParameterTypes();
+                    if (parameterTypes.length == 1) {
+                        String modifierString = methodName.substring(ON_EVENT_METHOD_NAME.length());
+                        ThreadMode threadMode;
+                        if (modifierString.length() == 0) {
+                            threadMode = ThreadMode.PostThread;
+                        } else if (modifierString.equals("MainThread")) {
+                            threadMode = ThreadMode.MainThread;
+                        } else if (modifierString.equals("BackgroundThread")) {
+                            threadMode = ThreadMode.BackgroundThread;
+                        } else if (modifierString.equals("Async")) {
+                            threadMode = ThreadMode.Async;
+                        } else {
+                            if (skipMethodVerificationForClasses.containsKey(clazz)) {
+                                continue;
+                            } else {
+                                throw new EventBusException("Illegal onEvent method, check for typos: " + method);
+                            }
+                        }
+                        Class<?> eventType = parameterTypes[0];
+                        if (eventTypesFound.add(buildMethodKey(methodKeyBuilder, methodName, eventType))) {
+                            // Only add if not already found in a sub class
+                            MethodInvoker invoker = methodInvokerFactory.createInvoker(method);
+                            subscriberMethods.add(new SubscriberMethod(clazz, methodName, invoker, threadMode,
+                                    eventType));
+                        }
+                    }
+                } else if (!skipMethodVerificationForClasses.containsKey(clazz)) {
+                    logger.log(Level.FINE, "Skipping method (not public, static or abstract): " + clazz + "."
+                            + methodName);
+                }
+            }
+        }
+    }
+
+    private static String buildMethodKey(StringBuilder methodKeyBuilder, String methodName, Class<?> eventType) {
+        methodKeyBuilder.setLength(0);
+        methodKeyBuilder.append(methodName);
+        methodKeyBuilder.append('>').append(eventType.getName());
+        return methodKeyBuilder.toString();
+    }
+
+    void clearCache() {
         synchronized (methodCache) {
             methodCache.clear();
         }
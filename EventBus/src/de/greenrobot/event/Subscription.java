@@ -15,6 +15,9 @@
  */
 package de.greenrobot.event;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 final class Subscription {
     final Object subscriber;
     final SubscriberMethod subscriberMethod;
@@ -24,6 +27,12 @@ final class Subscription {
      * {@link EventBus#invokeSubscriber(PendingPost)} to prevent race conditions.
      */
     volatile boolean active;
+    /** Pending conflation slots by conflation key, created on first use. */
+    private volatile ConcurrentMap<Object, ConflationSlot> conflationSlots;
+    /** Used by {@link OrderedAsyncPoster}, created on first use. */
+    volatile OrderedAsyncPoster.Mailbox asyncMailbox;
+    /** Set when subscribing if the event handler is rate limited, see {@link EventBusBuilder#throttle}. */
+    RateLimiter rateLimiter;
 
     Subscription(Object subscriber, SubscriberMethod subscriberMethod, int priority) {
         this.subscriber = subscriber;
@@ -32,6 +41,20 @@ final class Subscription {
         active = true;
     }
 
+    ConcurrentMap<Object, ConflationSlot> getConflationSlots() {
+        ConcurrentMap<Object, ConflationSlot> slots = conflationSlots;
+        if (slots == null) {
+            synchronized (this) {
+                slots = conflationSlots;
+                if (slots == null) {
+                    slots = new ConcurrentHashMap<Object, ConflationSlot>(4);
+                    conflationSlots = slots;
+                }
+            }
+        }
+        return slots;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (other instanceof Subscription) {
@@ -45,6 +68,7 @@ final class Subscription {
 
     @Override
     public int hashCode() {
-        return subscriber.hashCode() + subscriberMethod.methodString.hashCode();
+        // Identity like equals(); methodString may not be built yet
+        return System.identityHashCode(subscriber) * 31 + subscriberMethod.hashCode();
     }
 }
\ No newline at end of file
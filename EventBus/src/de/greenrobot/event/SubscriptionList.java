@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Subscriptions of a single event type ordered by priority, and by registration order for equal priorities. Guarded by
+ * the registry lock of {@link EventBus}; posting threads use the dispatch plans built from it instead. A hash set
+ * detects duplicate subscriptions in O(1). Insertion finds its position by binary search in O(log n), but shifting the
+ * following subscriptions makes it O(n); as that is a single array copy, it only shows for very long lists, which are
+ * better filled with {@link #addAll(List)}. Removed subscriptions are deactivated and left in place until they make up
+ * half of the list, so removal is O(1) amortized.
+ */
+final class SubscriptionList {
+    private final ArrayList<Subscription> subscriptions = new ArrayList<Subscription>();
+    private final Set<Subscription> members = new HashSet<Subscription>();
+    /** Number of inactive subscriptions not yet removed from the list. */
+    private int removedCount;
+    /** Read without locking by {@link EventBus#hasSubscriberForEvent(Class)}. */
+    private volatile int size;
+
+    boolean contains(Subscription subscription) {
+        return members.contains(subscription);
+    }
+
+    void add(Subscription subscription) {
+        subscriptions.add(insertionIndex(subscription.priority), subscription);
+        members.add(subscription);
+        size = members.size();
+    }
+
+    /** Adds the given subscriptions, sorting the list only once. */
+    void addAll(List<Subscription> newSubscriptions) {
+        compact();
+        subscriptions.addAll(newSubscriptions);
+        // Stable sort: for equal priorities, keeps registration order
+        Collections.sort(subscriptions, EventBus.PRIORITY_COMPARATOR);
+        members.addAll(newSubscriptions);
+        size = members.size();
+    }
+
+    /** Deactivates and removes the given subscription. */
+    void remove(Subscription subscription) {
+        if (members.remove(subscription)) {
+            subscription.active = false;
+            size = members.size();
+            removedCount++;
+            if (removedCount > 8 && removedCount > subscriptions.size() / 2) {
+                compact();
+            }
+        }
+    }
+
+    private void compact() {
+        if (removedCount > 0) {
+            int liveCount = 0;
+            int count = subscriptions.size();
+            for (int i = 0; i < count; i++) {
+                Subscription subscription = subscriptions.get(i);
+                if (subscription.active) {
+                    subscriptions.set(liveCount++, subscription);
+                }
+            }
+            subscriptions.subList(liveCount, count).clear();
+            removedCount = 0;
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void addTo(List<Subscription> target) {
+        if (removedCount == 0) {
+            target.addAll(subscriptions);
+        } else {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.active) {
+                    target.add(subscription);
+                }
+            }
+        }
+    }
+
+    Subscription[] toArray() {
+        compact();
+        return subscriptions.toArray(new Subscription[subscriptions.size()]);
+    }
+
+    /** @return the index after the last subscription with the given priority or higher */
+    private int insertionIndex(int priority) {
+        int low = 0;
+        int high = subscriptions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (subscriptions.get(mid).priority >= priority) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
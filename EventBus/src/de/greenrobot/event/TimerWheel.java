@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Hashed timing wheel for {@link EventBus#postDelayed(Object, long)} and {@link RateLimiter}s: timers are hashed by
+ * their deadline tick into a fixed number of buckets, each a doubly linked list of {@link ScheduledPost}s. Scheduling
+ * and cancelling are O(1) and the timer thread only visits one bucket per tick, so hundreds of thousands of pending
+ * timers are cheap. Timers fire with tick granularity, never early. Posting threads hand new timers to the timer thread
+ * via a pending list; cancelled timers are unlinked when the timer thread visits their bucket. The timer thread is a
+ * daemon thread started on first use, which parks while no timer is pending.
+ */
+final class TimerWheel implements Runnable {
+    private final EventBus eventBus;
+    private final long tickNanos;
+    private final ScheduledPost[] buckets;
+    private final int mask;
+    private final long startNanos;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private final Object pendingLock = new Object();
+    /** Guarded by pendingLock: timers not yet placed in the wheel, newest first. */
+    private ScheduledPost pendingHead;
+
+    /** Timer thread only: last tick processed. */
+    private long currentTick;
+    /** Timer thread only: number of timers in the buckets. */
+    private int timerCount;
+
+    private volatile Thread timerThread;
+    private volatile boolean idle;
+
+    TimerWheel(EventBus eventBus, long tickMillis, int ticksPerWheel) {
+        this.eventBus = eventBus;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        buckets = new ScheduledPost[ticksPerWheel];
+        mask = ticksPerWheel - 1;
+        startNanos = System.nanoTime();
+    }
+
+    /** @param rateLimiter if not null, the timer calls {@link RateLimiter#onTimer()} instead of posting the event */
+    ScheduledPost schedule(Object event, RateLimiter rateLimiter, long delayNanos) {
+        // Clamped so the deadline can't overflow
+        long deadline = System.nanoTime() - startNanos + Math.min(Math.max(delayNanos, 0), Long.MAX_VALUE / 4);
+        ScheduledPost scheduledPost = new ScheduledPost(event, rateLimiter, deadline);
+        synchronized (pendingLock) {
+            scheduledPost.nextPending = pendingHead;
+            pendingHead = scheduledPost;
+        }
+        if (!started.get() && started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this, "EventBus timer");
+            thread.setDaemon(true);
+            timerThread = thread;
+            thread.start();
+        } else if (idle) {
+            LockSupport.unpark(timerThread);
+        }
+        return scheduledPost;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            transferPending();
+            if (timerCount == 0) {
+                idle = true;
+                if (!hasPending()) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                // The wheel is empty, so skipped ticks have nothing to expire
+                currentTick = Math.max(currentTick, elapsedTicks());
+                continue;
+            }
+            long tick = currentTick + 1;
+            long nanosLeft;
+            while ((nanosLeft = startNanos + tick * tickNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, nanosLeft);
+            }
+            // Place timers scheduled meanwhile before expiring, in case they are due in this tick
+            transferPending();
+            expireBucket(tick);
+            currentTick = tick;
+        }
+    }
+
+    private long elapsedTicks() {
+        return (System.nanoTime() - startNanos) / tickNanos;
+    }
+
+    private boolean hasPending() {
+        synchronized (pendingLock) {
+            return pendingHead != null;
+        }
+    }
+
+    private void transferPending() {
+        ScheduledPost scheduledPost;
+        synchronized (pendingLock) {
+            scheduledPost = pendingHead;
+            pendingHead = null;
+        }
+        while (scheduledPost != null) {
+            ScheduledPost nextPending = scheduledPost.nextPending;
+            scheduledPost.nextPending = null;
+            if (!scheduledPost.isCancelled()) {
+                place(scheduledPost);
+            }
+            scheduledPost = nextPending;
+        }
+    }
+
+    private void place(ScheduledPost scheduledPost) {
+        // Round up, so a timer never fires early
+        long tick = (scheduledPost.deadlineNanos + tickNanos - 1) / tickNanos;
+        if (tick <= currentTick) {
+            tick = currentTick + 1;
+        }
+        scheduledPost.remainingRounds = (tick - currentTick - 1) / buckets.length;
+        int bucket = (int) (tick & mask);
+        scheduledPost.bucket = bucket;
+        ScheduledPost head = buckets[bucket];
+        scheduledPost.prev = null;
+        scheduledPost.next = head;
+        if (head != null) {
+            head.prev = scheduledPost;
+        }
+        buckets[bucket] = scheduledPost;
+        timerCount++;
+    }
+
+    private void remove(ScheduledPost scheduledPost) {
+        ScheduledPost prev = scheduledPost.prev;
+        ScheduledPost next = scheduledPost.next;
+        if (prev != null) {
+            prev.next = next;
+        } else {
+            buckets[scheduledPost.bucket] = next;
+        }
+        if (next != null) {
+            next.prev = prev;
+        }
+        scheduledPost.prev = null;
+        scheduledPost.next = null;
+        timerCount--;
+    }
+
+    private void expireBucket(long tick) {
+        ScheduledPost scheduledPost = buckets[(int) (tick & mask)];
+        while (scheduledPost != null) {
+            ScheduledPost next = scheduledPost.next;
+            if (scheduledPost.isCancelled()) {
+                remove(scheduledPost);
+            } else if (scheduledPost.remainingRounds <= 0) {
+                remove(scheduledPost);
+                if (scheduledPost.expire()) {
+                    fire(scheduledPost);
+                }
+            } else {
+                scheduledPost.remainingRounds--;
+            }
+            scheduledPost = next;
+        }
+    }
+
+    private void fire(ScheduledPost scheduledPost) {
+        try {
+            if (scheduledPost.rateLimiter != null) {
+                scheduledPost.rateLimiter.onTimer();
+            } else {
+                eventBus.post(scheduledPost.event);
+            }
+        } catch (RuntimeException e) {
+            // Keep the timer thread alive for other timers
+            eventBus.getLogger().log(Level.SEVERE, "Could not deliver scheduled event", e);
+        }
+    }
+}
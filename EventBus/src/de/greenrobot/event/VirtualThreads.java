@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Access to virtual threads (Java 21) via reflection, as EventBus also runs on older JVMs and Android. */
+final class VirtualThreads {
+    private static boolean initialized;
+    private static ExecutorService executorService;
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return an executor starting a new virtual thread for each task, shared by all EventBus instances, or null if
+     * the runtime does not support virtual threads
+     */
+    static synchronized ExecutorService getExecutorService() {
+        if (!initialized) {
+            initialized = true;
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                executorService = (ExecutorService) method.invoke(null);
+            } catch (NoSuchMethodException e) {
+                // Runtime before Java 19
+            } catch (InvocationTargetException e) {
+                // Preview feature not enabled (Java 19 and 20)
+            } catch (IllegalAccessException e) {
+                // Should not happen for a public method
+            }
+        }
+        return executorService;
+    }
+}
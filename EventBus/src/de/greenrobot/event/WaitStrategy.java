@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event;
+
+/**
+ * Determines how the thread of a ring buffer waits for events to deliver, see
+ * {@link EventBusBuilder#backgroundRingBuffer(int, WaitStrategy)}. Posting threads wait the same way if the ring
+ * buffer is full.
+ */
+public enum WaitStrategy {
+    /** Spins on the ring buffer: lowest latency, but keeps a CPU core busy all the time. */
+    BusySpin,
+
+    /** Spins and calls {@link Thread#yield()}: low latency, lets other threads run, but still burns CPU when idle. */
+    Yield,
+
+    /** Spins briefly, then parks the thread until an event is posted: no CPU use when idle, higher wake-up latency. */
+    Park
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.meta;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Calls a single event handling method. Generated indexes provide invokers calling the method directly, which avoids
+ * the overhead of {@link java.lang.reflect.Method#invoke(Object, Object...)} for each delivered event.
+ */
+public interface MethodInvoker {
+    /**
+     * Invokes the event handling method on the given subscriber. Like {@link java.lang.reflect.Method#invoke(Object,
+     * Object...)}, any exception thrown by the event handling method must be wrapped in an
+     * {@link InvocationTargetException}.
+     *
+     * @return the value returned by the event handling method, or null for void methods.
+     */
+    Object invoke(Object subscriber, Object event) throws IllegalAccessException, InvocationTargetException;
+}
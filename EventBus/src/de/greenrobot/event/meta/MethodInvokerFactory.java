@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.meta;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates invokers for event handling methods that are not covered by a generated index. By default, EventBus uses
+ * reflection. On JVMs supporting it, a factory may create faster invokers (e.g. based on java.lang.invoke), see
+ * {@link de.greenrobot.event.EventBusBuilder#methodInvokerFactory(MethodInvokerFactory)}.
+ */
+public interface MethodInvokerFactory {
+    MethodInvoker createInvoker(Method method);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.meta;
+
+/**
+ * The event handling methods declared by a single subscriber class (super classes are looked up separately). Used by
+ * generated indexes.
+ */
+public class SubscriberInfo {
+    private final Class<?> subscriberClass;
+    private final SubscriberMethodInfo[] subscriberMethods;
+
+    public SubscriberInfo(Class<?> subscriberClass, SubscriberMethodInfo[] subscriberMethods) {
+        this.subscriberClass = subscriberClass;
+        this.subscriberMethods = subscriberMethods;
+    }
+
+    public Class<?> getSubscriberClass() {
+        return subscriberClass;
+    }
+
+    public SubscriberMethodInfo[] getSubscriberMethods() {
+        return subscriberMethods;
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.meta;
+
+/**
+ * Interface for generated indexes (see EventBusAnnotationProcessor). Lets EventBus look up the event handling methods
+ * of a subscriber class without scanning it using reflection. Register an index with
+ * {@link de.greenrobot.event.EventBusBuilder#addIndex(SubscriberInfoIndex)}.
+ */
+public interface SubscriberInfoIndex {
+    /** @return the subscriber info for the given class, or null if the class is not indexed. */
+    SubscriberInfo getSubscriberInfo(Class<?> subscriberClass);
+}
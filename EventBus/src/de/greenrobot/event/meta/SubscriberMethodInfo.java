@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.meta;
+
+import de.greenrobot.event.ThreadMode;
+
+/**
+ * Describes one event handling method of an indexed subscriber class. If no invoker is given, EventBus looks up the
+ * method using reflection.
+ */
+public class SubscriberMethodInfo {
+    final String methodName;
+    final Class<?> eventType;
+    final ThreadMode threadMode;
+    final MethodInvoker invoker;
+
+    public SubscriberMethodInfo(String methodName, Class<?> eventType, ThreadMode threadMode) {
+        this(methodName, eventType, threadMode, null);
+    }
+
+    public SubscriberMethodInfo(String methodName, Class<?> eventType, ThreadMode threadMode, MethodInvoker invoker) {
+        this.methodName = methodName;
+        this.eventType = eventType;
+        this.threadMode = threadMode;
+        this.invoker = invoker;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+}
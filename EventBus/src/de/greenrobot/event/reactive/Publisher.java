@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.reactive;
+
+/**
+ * Provider of a potentially unbounded number of elements, published according to the demand of its subscribers. Same
+ * contract as org.reactivestreams.Publisher and java.util.concurrent.Flow.Publisher, which are not available to
+ * EventBus; adapting either takes a few lines. See {@link de.greenrobot.event.EventBus#asPublisher(Class)}.
+ */
+public interface Publisher<T> {
+    /**
+     * Requests the publisher to start streaming elements to the given subscriber, starting with
+     * {@link Subscriber#onSubscribe(Subscription)}. Elements are only sent after the subscriber signalled demand.
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.reactive;
+
+/**
+ * Receives elements from a {@link Publisher} after signalling demand by {@link Subscription#request(long)}. Signals
+ * are sent one at a time, never concurrently. Same contract as org.reactivestreams.Subscriber and
+ * java.util.concurrent.Flow.Subscriber.
+ */
+public interface Subscriber<T> {
+    /** Called once before any other signal; no elements are sent until demand is signalled using the subscription. */
+    void onSubscribe(Subscription subscription);
+
+    /** Called for each element, never more often than requested. */
+    void onNext(T element);
+
+    /** Terminal signal after a failure; no further signals follow. */
+    void onError(Throwable throwable);
+
+    /** Terminal signal after the last element; no further signals follow. */
+    void onComplete();
+}
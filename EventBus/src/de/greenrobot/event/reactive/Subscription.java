@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.reactive;
+
+/**
+ * Link between a {@link Publisher} and one of its {@link Subscriber}s. Same contract as
+ * org.reactivestreams.Subscription and java.util.concurrent.Flow.Subscription.
+ */
+public interface Subscription {
+    /** Adds demand for the given number of elements (positive; Long.MAX_VALUE means unbounded). */
+    void request(long n);
+
+    /** Stops sending elements, eventually; elements may still arrive for a short time. */
+    void cancel();
+}
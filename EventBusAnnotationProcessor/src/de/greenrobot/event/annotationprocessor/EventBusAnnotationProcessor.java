@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2012 Markus Junginger, greenrobot (http://greenrobot.de)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.greenrobot.event.annotationprocessor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a {@code SubscriberInfoIndex} for all subscriber classes of a compilation, so EventBus does not have to
+ * find event handling methods using reflection at runtime. The index also provides invokers calling the methods
+ * directly instead of using {@link java.lang.reflect.Method#invoke(Object, Object...)}. Subscribers are identified by
+ * the same naming conventions that EventBus applies at runtime (public, non-static "onEvent" methods with a single
+ * parameter). The fully qualified name of the generated class must be given using the annotation processor option
+ * "eventBusIndex".
+ * <p/>
+ * Classes that cannot be indexed (e.g. private classes, or classes with methods that would fail runtime verification)
+ * are left out; EventBus falls back to reflection for those.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(EventBusAnnotationProcessor.OPTION_EVENT_BUS_INDEX)
+public class EventBusAnnotationProcessor extends AbstractProcessor {
+    public static final String OPTION_EVENT_BUS_INDEX = "eventBusIndex";
+
+    private static final String ON_EVENT_METHOD_NAME = "onEvent";
+
+    /** Found subscriber classes, mapping to their event handling methods and thread modes. */
+    private final Map<TypeElement, Map<ExecutableElement, String>> methodsByClass =
+            new LinkedHashMap<TypeElement, Map<ExecutableElement, String>>();
+
+    private boolean writerRoundDone;
+    private boolean noIndexNoted;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latest();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+        Messager messager = processingEnv.getMessager();
+        // Element being processed, to point the error message at it
+        TypeElement currentElement = null;
+        try {
+            String index = processingEnv.getOptions().get(OPTION_EVENT_BUS_INDEX);
+            if (index == null) {
+                if (!noIndexNoted) {
+                    messager.printMessage(Diagnostic.Kind.NOTE, "No option " + OPTION_EVENT_BUS_INDEX +
+                            " passed to annotation processor, not generating an EventBus index");
+                    noIndexNoted = true;
+                }
+                return false;
+            }
+            if (env.processingOver() || env.getRootElements().isEmpty()) {
+                return false;
+            }
+
+            for (Element element : env.getRootElements()) {
+                if (element instanceof TypeElement
+                        && !((TypeElement) element).getQualifiedName().contentEquals(index)) {
+                    currentElement = (TypeElement) element;
+                    collectSubscribers(currentElement, index);
+                }
+            }
+            currentElement = null;
+
+            if (writerRoundDone) {
+                if (!methodsByClass.isEmpty()) {
+                    messager.printMessage(Diagnostic.Kind.WARNING, "Subscribers generated in later processing " +
+                            "rounds are not indexed and will be looked up using reflection: " +
+                            methodsByClass.keySet());
+                    methodsByClass.clear();
+                }
+            } else {
+                createInfoIndexFile(index);
+                methodsByClass.clear();
+                writerRoundDone = true;
+            }
+        } catch (RuntimeException e) {
+            String message = "Unexpected error in EventBusAnnotationProcessor: " + e;
+            if (e.getCause() != null) {
+                message += ", caused by " + e.getCause();
+            }
+            if (currentElement != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, message, currentElement);
+            } else {
+                messager.printMessage(Diagnostic.Kind.ERROR, message);
+            }
+        }
+        return false;
+    }
+
+    private void collectSubscribers(TypeElement typeElement, String index) {
+        if (typeElement.getKind() == ElementKind.CLASS && !isSystemClass(typeElement)) {
+            Map<ExecutableElement, String> methods = new LinkedHashMap<ExecutableElement, String>();
+            boolean indexable = isVisibleFrom(typeElement, getPackageName(index));
+            for (Element enclosed : typeElement.getEnclosedElements()) {
+                if (enclosed.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) enclosed;
+                String methodName = method.getSimpleName().toString();
+                Set<Modifier> modifiers = method.getModifiers();
+                if (!methodName.startsWith(ON_EVENT_METHOD_NAME) || !modifiers.contains(Modifier.PUBLIC)
+                        || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.ABSTRACT)
+                        || method.getParameters().size() != 1) {
+                    continue;
+                }
+                String threadMode = getThreadMode(methodName.substring(ON_EVENT_METHOD_NAME.length()));
+                TypeMirror eventType = getEventType(method.getParameters().get(0), getPackageName(index));
+                if (threadMode == null || eventType == null) {
+                    // Leave it to runtime verification (which may also skip it, see skipMethodVerificationFor)
+                    indexable = false;
+                } else {
+                    methods.put(method, threadMode);
+                }
+            }
+            if (indexable && !methods.isEmpty()) {
+                methodsByClass.put(typeElement, methods);
+            }
+        }
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                collectSubscribers((TypeElement) enclosed, index);
+            }
+        }
+    }
+
+    private String getThreadMode(String modifierString) {
+        if (modifierString.length() == 0) {
+            return "PostThread";
+        } else if (modifierString.equals("MainThread") || modifierString.equals("BackgroundThread")
+                || modifierString.equals("Async")) {
+            return modifierString;
+        } else {
+            return null;
+        }
+    }
+
+    /** @return the erased event type if it can be referenced from the index, or null otherwise. */
+    private TypeMirror getEventType(VariableElement param, String indexPackage) {
+        TypeMirror type = processingEnv.getTypeUtils().erasure(param.asType());
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement eventClass = (TypeElement) ((DeclaredType) type).asElement();
+        return isVisibleFrom(eventClass, indexPackage) ? type : null;
+    }
+
+    private boolean isSystemClass(TypeElement typeElement) {
+        String name = typeElement.getQualifiedName().toString();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("android.");
+    }
+
+    /** Checks if a class literal of the given type compiles inside the index' package. */
+    private boolean isVisibleFrom(TypeElement typeElement, String packageName) {
+        Element element = typeElement;
+        while (element instanceof TypeElement) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            } else if (!modifiers.contains(Modifier.PUBLIC)) {
+                PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
+                if (!packageElement.getQualifiedName().contentEquals(packageName)) {
+                    return false;
+                }
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private String getPackageName(String className) {
+        int period = className.lastIndexOf('.');
+        return period > 0 ? className.substring(0, period) : "";
+    }
+
+    private void createInfoIndexFile(String index) {
+        BufferedWriter writer = null;
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(index);
+            String myPackage = getPackageName(index);
+            String clazz = index.substring(index.lastIndexOf('.') + 1);
+            writer = new BufferedWriter(sourceFile.openWriter());
+            if (myPackage.length() > 0) {
+                writer.write("package " + myPackage + ";\n\n");
+            }
+            writer.write("import de.greenrobot.event.ThreadMode;\n");
+            writer.write("import de.greenrobot.event.meta.MethodInvoker;\n");
+            writer.write("import de.greenrobot.event.meta.SubscriberInfo;\n");
+            writer.write("import de.greenrobot.event.meta.SubscriberInfoIndex;\n");
+            writer.write("import de.greenrobot.event.meta.SubscriberMethodInfo;\n\n");
+            writer.write("import java.lang.reflect.InvocationTargetException;\n");
+            writer.write("import java.util.HashMap;\n");
+            writer.write("import java.util.Map;\n\n");
+            writer.write("/** This class is generated by EventBus, do not edit. */\n");
+            writer.write("@SuppressWarnings(\"unchecked\")\n");
+            writer.write("public class " + clazz + " implements SubscriberInfoIndex {\n");
+            writer.write("    private static final Map<Class<?>, SubscriberInfo> SUBSCRIBER_INDEX;\n\n");
+            writer.write("    static {\n");
+            writer.write("        SUBSCRIBER_INDEX = new HashMap<Class<?>, SubscriberInfo>();\n\n");
+            writeIndexLines(writer);
+            writer.write("    }\n\n");
+            writer.write("    private static void putIndex(SubscriberInfo info) {\n");
+            writer.write("        SUBSCRIBER_INDEX.put(info.getSubscriberClass(), info);\n");
+            writer.write("    }\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public SubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {\n");
+            writer.write("        return SUBSCRIBER_INDEX.get(subscriberClass);\n");
+            writer.write("    }\n");
+            writer.write("}\n");
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write source for " + index, e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    //Silent
+                }
+            }
+        }
+    }
+
+    private void writeIndexLines(BufferedWriter writer) throws IOException {
+        for (Map.Entry<TypeElement, Map<ExecutableElement, String>> entry : methodsByClass.entrySet()) {
+            String subscriberClass = getClassLiteralName(entry.getKey().asType());
+            writer.write("        putIndex(new SubscriberInfo(" + subscriberClass
+                    + ".class, new SubscriberMethodInfo[] {\n");
+            for (Map.Entry<ExecutableElement, String> methodEntry : entry.getValue().entrySet()) {
+                ExecutableElement method = methodEntry.getKey();
+                String eventType = getClassLiteralName(method.getParameters().get(0).asType());
+                String call = "((" + subscriberClass + ") subscriber)." + method.getSimpleName() + "((" + eventType
+                        + ") event)";
+                writer.write("            new SubscriberMethodInfo(\"" + method.getSimpleName() + "\", "
+                        + eventType + ".class, ThreadMode." + methodEntry.getValue() + ", new MethodInvoker() {\n");
+                writer.write("                public Object invoke(Object subscriber, Object event)\n");
+                writer.write("                        throws InvocationTargetException {\n");
+                writer.write("                    try {\n");
+                if (method.getReturnType().getKind() == TypeKind.VOID) {
+                    writer.write("                        " + call + ";\n");
+                    writer.write("                        return null;\n");
+                } else {
+                    writer.write("                        return " + call + ";\n");
+                }
+                writer.write("                    } catch (Throwable t) {\n");
+                writer.write("                        throw new InvocationTargetException(t);\n");
+                writer.write("                    }\n");
+                writer.write("                }\n");
+                writer.write("            }),\n");
+            }
+            writer.write("        }));\n\n");
+        }
+    }
+
+    private String getClassLiteralName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+    }
+
+}
@@ -0,0 +1,106 @@
+package de.greenrobot.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention on the PendingPost pool, which is shared by all posters of all buses, compared to plain allocation. In the
+ * same package as {@link PendingPost} to access it directly. Use -t to vary the number of threads.
+ * <p/>
+ * obtainRelease obtains and releases on the same thread. handOff is the usual flow: producer threads obtain and
+ * enqueue, while a single consumer thread polls and releases; each producer has at most {@link #MAX_OUTSTANDING}
+ * posts in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PendingPostBenchmark {
+    static final int MAX_OUTSTANDING = 1024;
+
+    @Param({"true", "false"})
+    public boolean pooling;
+
+    private final Object event = new Object();
+    private MpscPendingPostQueue queue;
+    private Thread consumer;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        queue = new MpscPendingPostQueue();
+        running = true;
+        consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (running) {
+                        PendingPost pendingPost = queue.poll(100);
+                        if (pendingPost != null) {
+                            AtomicLong consumed = ((Producer) pendingPost.event).consumed;
+                            if (pooling) {
+                                PendingPost.releasePendingPost(pendingPost);
+                            }
+                            consumed.lazySet(consumed.get() + 1);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Done
+                }
+            }
+        }, "Pending post consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        consumer.join();
+    }
+
+    @Benchmark
+    public PendingPost obtainRelease() {
+        if (pooling) {
+            PendingPost pendingPost = PendingPost.obtainPendingPost(null, event);
+            PendingPost.releasePendingPost(pendingPost);
+            return pendingPost;
+        } else {
+            return new PendingPost(event, null);
+        }
+    }
+
+    @Benchmark
+    public void handOff(Producer producer) {
+        while (producer.produced - producer.consumed.get() >= MAX_OUTSTANDING) {
+            Thread.yield();
+        }
+        producer.produced++;
+        queue.enqueue(pooling ? PendingPost.obtainPendingPost(null, producer) : new PendingPost(producer, null));
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        /** Only written by the consumer. */
+        final AtomicLong consumed = new AtomicLong();
+        long produced;
+    }
+}
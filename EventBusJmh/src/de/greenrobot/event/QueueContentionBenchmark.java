@@ -0,0 +1,139 @@
+package de.greenrobot.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention of 1, 4 and 16 producers enqueuing into the queue of a poster while a single consumer drains it. Compares
+ * the lock-free {@link MpscPendingPostQueue} with the synchronized {@link PendingPostQueue}. Each producer has at most
+ * {@link #MAX_OUTSTANDING} posts in flight and reuses its own pending posts, so neither the queue length nor the shared
+ * PendingPost pool distort the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueContentionBenchmark {
+    static final int MAX_OUTSTANDING = 1024;
+
+    @Param({"mpsc", "synchronized"})
+    public String queue;
+
+    private Queue pendingPosts;
+    private Thread consumer;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("mpsc".equals(queue)) {
+            final MpscPendingPostQueue mpscQueue = new MpscPendingPostQueue();
+            pendingPosts = new Queue() {
+                public void enqueue(PendingPost pendingPost) {
+                    mpscQueue.enqueue(pendingPost);
+                }
+
+                public PendingPost poll() {
+                    return mpscQueue.poll();
+                }
+            };
+        } else {
+            final PendingPostQueue lockedQueue = new PendingPostQueue();
+            pendingPosts = new Queue() {
+                public void enqueue(PendingPost pendingPost) {
+                    lockedQueue.enqueue(pendingPost);
+                }
+
+                public PendingPost poll() {
+                    return lockedQueue.poll();
+                }
+            };
+        }
+        running = true;
+        consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (running) {
+                    PendingPost pendingPost = pendingPosts.poll();
+                    if (pendingPost != null) {
+                        AtomicLong consumed = ((Producer) pendingPost.event).consumed;
+                        consumed.lazySet(consumed.get() + 1);
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }
+        }, "Queue consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        consumer.join();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void producers01(Producer producer) {
+        producer.produce(pendingPosts);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void producers04(Producer producer) {
+        producer.produce(pendingPosts);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void producers16(Producer producer) {
+        producer.produce(pendingPosts);
+    }
+
+    interface Queue {
+        void enqueue(PendingPost pendingPost);
+
+        PendingPost poll();
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        final PendingPost[] ownPendingPosts = new PendingPost[MAX_OUTSTANDING];
+        /** Only written by the consumer. */
+        final AtomicLong consumed = new AtomicLong();
+        long produced;
+
+        public Producer() {
+            for (int i = 0; i < MAX_OUTSTANDING; i++) {
+                ownPendingPosts[i] = new PendingPost(this, null);
+            }
+        }
+
+        void produce(Queue queue) {
+            while (produced - consumed.get() >= MAX_OUTSTANDING) {
+                Thread.yield();
+            }
+            PendingPost pendingPost = ownPendingPosts[(int) (produced++ % MAX_OUTSTANDING)];
+            pendingPost.next = null;
+            queue.enqueue(pendingPost);
+        }
+    }
+}
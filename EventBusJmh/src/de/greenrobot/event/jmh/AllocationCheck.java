@@ -0,0 +1,52 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Fails (exit code 1) if posting to PostThread subscribers with generated invokers allocates in steady state. Run by
+ * "gradle checkAllocation", which is part of "gradle check". Requires a HotSpot-based JVM to measure allocated bytes.
+ */
+public class AllocationCheck {
+    private static final int WARMUP_POSTS = 200000;
+    private static final int MEASURED_POSTS = 1000000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        EventBus eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).build();
+        eventBus.register(new AllocationSubscriber(), 1);
+        eventBus.register(new AllocationSubscriber());
+        AllocationEvent event = new AllocationEvent();
+        for (int i = 0; i < WARMUP_POSTS; i++) {
+            eventBus.post(event);
+        }
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_POSTS; i++) {
+            eventBus.post(event);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        double bytesPerPost = (double) allocated / MEASURED_POSTS;
+        System.out.println("Allocated " + allocated + " bytes for " + MEASURED_POSTS + " posts (" + bytesPerPost
+                + " bytes/op)");
+        // Allow a few bytes in total for the measurement itself
+        if (allocated > 1024) {
+            System.err.println("PostThread delivery allocates, expected 0 bytes/op");
+            System.exit(1);
+        }
+    }
+
+    public static class AllocationEvent {
+        int count;
+    }
+
+    public static class AllocationSubscriber {
+        public void onEvent(AllocationEvent event) {
+            event.count++;
+        }
+    }
+}
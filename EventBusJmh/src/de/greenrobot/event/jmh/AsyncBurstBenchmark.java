@@ -0,0 +1,70 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of Async events to several subscribers, delivered by the default cached thread pool (one task per event) or
+ * by ordered delivery on a fixed pool (one mailbox per subscription). Measures until all events were delivered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncBurstBenchmark {
+    private static final int BURST = 1000;
+    private static final int SUBSCRIBERS = 4;
+
+    /** Thread pool size of ordered delivery, 0 for unordered delivery. */
+    @Param({"0", "4"})
+    public int orderedThreads;
+
+    private final BurstEvent event = new BurstEvent();
+    private EventBus eventBus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).orderedAsyncDelivery(orderedThreads).build();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            eventBus.register(new BurstSubscriber());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void postBurst() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(BURST * SUBSCRIBERS);
+        event.latch = latch;
+        for (int i = 0; i < BURST; i++) {
+            eventBus.post(event);
+        }
+        latch.await();
+    }
+
+    public static class BurstEvent {
+        volatile CountDownLatch latch;
+    }
+
+    public static class BurstSubscriber {
+        public void onEventAsync(BurstEvent event) {
+            event.latch.countDown();
+        }
+    }
+}
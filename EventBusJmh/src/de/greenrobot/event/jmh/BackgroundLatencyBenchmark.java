@@ -0,0 +1,73 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.EventBusBuilder;
+import de.greenrobot.event.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency from posting on the main thread until a BackgroundThread subscriber received the event, for the queue backend
+ * and the ring buffer backend with each wait strategy. Sample mode reports the percentiles p50, p99 and p99.9.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackgroundLatencyBenchmark {
+    @Param({"queue", "ringBusySpin", "ringYield", "ringPark"})
+    public String backend;
+
+    private final LatencyEvent event = new LatencyEvent();
+    private final LatencySubscriber subscriber = new LatencySubscriber();
+    private EventBus eventBus;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventBusBuilder builder = EventBus.builder().addIndex(new JmhEventBusIndex())
+                .mainThreadSupport(new CallerMainThreadSupport());
+        if (backend.startsWith("ring")) {
+            builder.backgroundRingBuffer(1024, WaitStrategy.valueOf(backend.substring("ring".length())));
+        }
+        eventBus = builder.build();
+        eventBus.register(subscriber);
+    }
+
+    @Benchmark
+    public long postAndAwaitDelivery() {
+        long expected = ++sequence;
+        event.sequence = expected;
+        eventBus.post(event);
+        while (subscriber.received != expected) {
+            // Spin to keep the measurement free of wake-up latency of the posting thread
+        }
+        return expected;
+    }
+
+    public static class LatencyEvent {
+        volatile long sequence;
+    }
+
+    public static class LatencySubscriber {
+        volatile long received;
+
+        public void onEventBackgroundThread(LatencyEvent event) {
+            received = event.sequence;
+        }
+    }
+}
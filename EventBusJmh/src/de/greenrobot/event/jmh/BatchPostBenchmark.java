@@ -0,0 +1,139 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.EventBusBuilder;
+import de.greenrobot.event.ThreadMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares {@link EventBus#postAll(java.util.Collection)} with calling post() in a loop, including delivery. MainThread
+ * events are posted from a non-main thread and BackgroundThread events from the main thread, so both go through their
+ * posters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchPostBenchmark {
+    static final int BATCH = 100;
+
+    @Param({"PostThread", "MainThread", "BackgroundThread"})
+    public ThreadMode threadMode;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final List<Object> events = new ArrayList<Object>();
+    private EventBus eventBus;
+    private Object subscriber;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventBusBuilder builder = EventBus.builder().addIndex(new JmhEventBusIndex());
+        switch (threadMode) {
+            case PostThread:
+                subscriber = new PostThreadSubscriber(delivered);
+                break;
+            case MainThread:
+                subscriber = new MainThreadSubscriber(delivered);
+                break;
+            case BackgroundThread:
+                subscriber = new BackgroundThreadSubscriber(delivered);
+                builder.mainThreadSupport(new CallerMainThreadSupport());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported thread mode: " + threadMode);
+        }
+        eventBus = builder.build();
+        eventBus.register(subscriber);
+        for (int i = 0; i < BATCH; i++) {
+            events.add(new BatchEvent());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.unregister(subscriber);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void postLoop() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(events.get(i));
+        }
+        awaitDelivery();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void postAll() {
+        eventBus.postAll(events);
+        awaitDelivery();
+    }
+
+    private void awaitDelivery() {
+        expected += BATCH;
+        while (delivered.get() < expected) {
+            Thread.yield();
+        }
+    }
+
+    public static class BatchEvent {
+    }
+
+    public static class PostThreadSubscriber {
+        private final AtomicLong delivered;
+
+        public PostThreadSubscriber(AtomicLong delivered) {
+            this.delivered = delivered;
+        }
+
+        public void onEvent(BatchEvent event) {
+            delivered.incrementAndGet();
+        }
+    }
+
+    public static class MainThreadSubscriber {
+        private final AtomicLong delivered;
+
+        public MainThreadSubscriber(AtomicLong delivered) {
+            this.delivered = delivered;
+        }
+
+        public void onEventMainThread(BatchEvent event) {
+            delivered.incrementAndGet();
+        }
+    }
+
+    public static class BackgroundThreadSubscriber {
+        private final AtomicLong delivered;
+
+        public BackgroundThreadSubscriber(AtomicLong delivered) {
+            this.delivered = delivered;
+        }
+
+        public void onEventBackgroundThread(BatchEvent event) {
+            delivered.incrementAndGet();
+        }
+    }
+}
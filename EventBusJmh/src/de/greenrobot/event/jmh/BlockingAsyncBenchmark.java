@@ -0,0 +1,80 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One event to thousands of Async subscribers that block (sleep) like subscribers doing I/O, delivered on platform
+ * threads of a cached pool or on virtual threads. Virtual threads require Java 21; on older runtimes, the virtual
+ * variant falls back to the executor service and thus measures platform threads as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingAsyncBenchmark {
+    private static final int BLOCKING_MILLIS = 10;
+
+    @Param({"2000", "10000"})
+    public int subscribers;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private final BlockingEvent event = new BlockingEvent();
+    private ExecutorService executorService;
+    private EventBus eventBus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executorService = Executors.newCachedThreadPool();
+        eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).executorService(executorService)
+                .asyncVirtualThreads("virtual".equals(threads)).build();
+        for (int i = 0; i < subscribers; i++) {
+            eventBus.register(new BlockingSubscriber());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Benchmark
+    public void postToBlockingSubscribers() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(subscribers);
+        event.latch = latch;
+        eventBus.post(event);
+        latch.await();
+    }
+
+    public static class BlockingEvent {
+        volatile CountDownLatch latch;
+    }
+
+    public static class BlockingSubscriber {
+        public void onEventAsync(BlockingEvent event) throws InterruptedException {
+            Thread.sleep(BLOCKING_MILLIS);
+            event.latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.EventBusBuilder;
+import de.greenrobot.event.JvmMainThreadSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fails (exit code 1) if postAll does not deliver a batch larger than the bounded queue it is handed to with the
+ * blocking overflow policy, for the background and the main thread poster, with and without priority lanes. Run by
+ * "gradle checkBoundedBatch", which is part of "gradle check".
+ */
+public class BoundedBatchCheck {
+    private static final int QUEUE_SIZE = 10;
+    private static final int EVENTS = 100;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        boolean ok = check("background", false, true);
+        ok &= check("background with priority lanes", true, true);
+        ok &= check("main thread", false, false);
+        ok &= check("main thread with priority lanes", true, false);
+        if (ok) {
+            System.out.println("Bounded batches OK");
+        }
+        // Idle threads of the default executor service would keep the JVM alive for another minute
+        System.exit(ok ? 0 : 1);
+    }
+
+    /** @param background posts to background subscribers from the main thread, else the other way round */
+    private static boolean check(String description, boolean priorityLanes, final boolean background)
+            throws Exception {
+        JvmMainThreadSupport mainThreadSupport = new JvmMainThreadSupport();
+        EventBusBuilder builder = EventBus.builder().addIndex(new JmhEventBusIndex())
+                .mainThreadSupport(mainThreadSupport).maxQueueSize(QUEUE_SIZE);
+        if (priorityLanes) {
+            builder.priorityLanes(8);
+        }
+        final EventBus eventBus = builder.build();
+        BatchSubscriber subscriber = new BatchSubscriber();
+        eventBus.register(subscriber);
+        final List<Object> events = new ArrayList<Object>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(background ? (Object) new BackgroundEvent() : new MainThreadEvent());
+        }
+        Callable<Void> postAll = new Callable<Void>() {
+            @Override
+            public Void call() {
+                eventBus.postAll(events);
+                return null;
+            }
+        };
+        ExecutorService postingExecutor = background ? mainThreadSupport.getExecutor() :
+                Executors.newSingleThreadExecutor();
+        Future<Void> posted = postingExecutor.submit(postAll);
+        try {
+            posted.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.err.println(description + ": postAll of " + EVENTS + " events to a queue of " + QUEUE_SIZE
+                    + " did not return, " + (EVENTS - subscriber.delivered.getCount()) + " delivered");
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println(description + ": postAll failed: " + e.getCause());
+            return false;
+        } finally {
+            // Lets the JVM exit even if the posting thread is stuck
+            postingExecutor.shutdownNow();
+        }
+        if (!subscriber.delivered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            System.err.println(description + ": only " + (EVENTS - subscriber.delivered.getCount()) + " of "
+                    + EVENTS + " events delivered");
+            return false;
+        }
+        return true;
+    }
+
+    public static class BackgroundEvent {
+    }
+
+    public static class MainThreadEvent {
+    }
+
+    public static class BatchSubscriber {
+        final CountDownLatch delivered = new CountDownLatch(EVENTS);
+
+        public void onEventBackgroundThread(BackgroundEvent event) {
+            delivered.countDown();
+        }
+
+        public void onEventMainThread(MainThreadEvent event) {
+            delivered.countDown();
+        }
+    }
+}
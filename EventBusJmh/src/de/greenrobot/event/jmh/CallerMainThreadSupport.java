@@ -0,0 +1,21 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.MainThreadSupport;
+
+/**
+ * Makes the thread creating it the main thread, so benchmark threads can post as the main thread. Benchmarks using it
+ * must not have MainThread subscribers, as the benchmark thread does not run posted runnables.
+ */
+public class CallerMainThreadSupport implements MainThreadSupport {
+    private final Thread mainThread = Thread.currentThread();
+
+    @Override
+    public boolean isMainThread() {
+        return mainThread == Thread.currentThread();
+    }
+
+    @Override
+    public void post(Runnable runnable) {
+        throw new UnsupportedOperationException("The benchmark thread does not run posted runnables");
+    }
+}
@@ -0,0 +1,135 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.Registration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fails (exit code 1) if the cached dispatch plans deliver an event in the wrong order or are not rebuilt after
+ * (un)registration. Subscribers of an event's class, its superclass and an interface are ordered by priority across
+ * all those types; for equal priorities, more specific types come first, then registration order. Run by
+ * "gradle checkDispatchPlan", which is part of "gradle check".
+ */
+public class DispatchPlanCheck {
+    private static final List<String> deliveries = new ArrayList<String>();
+    private static int failures;
+
+    public static void main(String[] args) {
+        checkOrderAcrossSupertypes();
+        checkOrderForEqualPriorities();
+        checkInvalidation();
+        if (failures > 0) {
+            System.err.println(failures + " dispatch plan check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("Dispatch plans OK");
+    }
+
+    private static void checkOrderAcrossSupertypes() {
+        EventBus eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).build();
+        // Register in the opposite order of the expected delivery, so registration order cannot explain a pass
+        eventBus.register(new ChildSubscriber("child"), 1);
+        eventBus.register(new BaseSubscriber("base"), 5);
+        eventBus.register(new IfaceSubscriber("iface"), 10);
+        expect("priorities across supertypes", eventBus, new ChildEvent(), "iface", "base", "child");
+
+        eventBus.register(new ChildSubscriber("child20"), 20);
+        expect("higher priority of the event class", eventBus, new ChildEvent(),
+                "child20", "iface", "base", "child");
+        expect("priorities of a superclass event", eventBus, new BaseEvent(), "iface", "base");
+    }
+
+    private static void checkOrderForEqualPriorities() {
+        EventBus eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).build();
+        eventBus.register(new IfaceSubscriber("iface1"));
+        eventBus.register(new BaseSubscriber("base1"));
+        eventBus.register(new ChildSubscriber("child1"));
+        eventBus.register(new BaseSubscriber("base2"));
+        eventBus.register(new IfaceSubscriber("iface2"));
+        eventBus.register(new ChildSubscriber("child2"));
+        expect("equal priorities", eventBus, new ChildEvent(),
+                "child1", "child2", "base1", "base2", "iface1", "iface2");
+    }
+
+    private static void checkInvalidation() {
+        EventBus eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).build();
+        BaseSubscriber base = new BaseSubscriber("base");
+        eventBus.register(new ChildSubscriber("child"), 1);
+        eventBus.register(base, 5);
+        Registration iface = eventBus.registerWithHandle(new IfaceSubscriber("iface"), 10);
+        // Builds the plan
+        expect("initial plan", eventBus, new ChildEvent(), "iface", "base", "child");
+
+        eventBus.unregister(base);
+        expect("after unregister", eventBus, new ChildEvent(), "iface", "child");
+
+        eventBus.register(base, 0);
+        expect("after register with another priority", eventBus, new ChildEvent(), "iface", "child", "base");
+
+        iface.close();
+        expect("after closing a registration", eventBus, new ChildEvent(), "child", "base");
+
+        eventBus.registerAll(Arrays.asList(new IfaceSubscriber("ifaceAll"), new ChildSubscriber("childAll"),
+                new BaseSubscriber("baseAll")));
+        expect("after registerAll", eventBus, new ChildEvent(), "child", "childAll", "base", "baseAll", "ifaceAll");
+        expect("superclass plan after registerAll", eventBus, new BaseEvent(), "base", "baseAll", "ifaceAll");
+    }
+
+    private static void expect(String description, EventBus eventBus, Object event, String... expected) {
+        deliveries.clear();
+        eventBus.post(event);
+        List<String> expectedList = Arrays.asList(expected);
+        if (!deliveries.equals(expectedList)) {
+            System.err.println(description + ": expected " + expectedList + ", but was " + deliveries);
+            failures++;
+        }
+    }
+
+    public interface IfaceEvent {
+    }
+
+    public static class BaseEvent implements IfaceEvent {
+    }
+
+    public static class ChildEvent extends BaseEvent {
+    }
+
+    public static class IfaceSubscriber {
+        private final String name;
+
+        IfaceSubscriber(String name) {
+            this.name = name;
+        }
+
+        public void onEvent(IfaceEvent event) {
+            deliveries.add(name);
+        }
+    }
+
+    public static class BaseSubscriber {
+        private final String name;
+
+        BaseSubscriber(String name) {
+            this.name = name;
+        }
+
+        public void onEvent(BaseEvent event) {
+            deliveries.add(name);
+        }
+    }
+
+    public static class ChildSubscriber {
+        private final String name;
+
+        ChildSubscriber(String name) {
+            this.name = name;
+        }
+
+        public void onEvent(ChildEvent event) {
+            deliveries.add(name);
+        }
+    }
+}
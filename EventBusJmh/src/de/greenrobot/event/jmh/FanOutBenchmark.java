@@ -0,0 +1,74 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.EventBusBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts an event to many PostThread subscribers, delivered sequentially or by parallel fan-out. Compare the scores per
+ * subscriber count and work per subscriber to find the crossover point, above which parallel fan-out pays off on the
+ * machine at hand. Parallel fan-out needs several cores to win at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutBenchmark {
+    @Param({"16", "64", "256", "1024"})
+    public int subscribers;
+
+    /** Blackhole tokens consumed by each subscriber per event. */
+    @Param({"0", "100", "1000"})
+    public int work;
+
+    /** Number of chunks of parallel fan-out, 0 for sequential delivery. */
+    @Param({"0", "4"})
+    public int parallelism;
+
+    private EventBus eventBus;
+    private final FanOutEvent event = new FanOutEvent();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventBusBuilder builder = EventBus.builder().addIndex(new JmhEventBusIndex());
+        if (parallelism > 0) {
+            builder.parallelFanOut(2, parallelism);
+        }
+        eventBus = builder.build();
+        event.work = work;
+        for (int i = 0; i < subscribers; i++) {
+            eventBus.register(new FanOutSubscriber());
+        }
+    }
+
+    @Benchmark
+    public void post() {
+        eventBus.post(event);
+    }
+
+    public static class FanOutEvent {
+        int work;
+    }
+
+    public static class FanOutSubscriber {
+        public void onEvent(FanOutEvent event) {
+            Blackhole.consumeCPU(event.work);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Impact of the event class hierarchy depth on posting, with and without event inheritance. Each level of the
+ * hierarchy adds a super class and an interface, which are looked up by lookupAllEventTypes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InheritanceBenchmark {
+    private static final Object[] EVENTS = {new Level0(), new Level1(), new Level2(), new Level3(), new Level4(),
+            new Level5(), new Level6(), new Level7(), new Level8()};
+
+    @Param({"0", "2", "4", "8"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean eventInheritance;
+
+    private EventBus eventBus;
+    private Object event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = EventBus.builder().eventInheritance(eventInheritance).logNoSubscriberMessages(false)
+                .sendNoSubscriberEvent(false).addIndex(new JmhEventBusIndex()).build();
+        eventBus.register(new LevelSubscriber());
+        event = EVENTS[depth];
+    }
+
+    @Benchmark
+    public void post() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    public boolean hasSubscriberForEvent() {
+        return eventBus.hasSubscriberForEvent(event.getClass());
+    }
+
+    public static class LevelSubscriber {
+        public void onEvent(Level0 event) {
+        }
+
+        public void onEvent(Level8 event) {
+        }
+    }
+
+    public interface Marker1 {
+    }
+
+    public interface Marker2 extends Marker1 {
+    }
+
+    public interface Marker3 {
+    }
+
+    public interface Marker4 extends Marker3 {
+    }
+
+    public static class Level0 {
+    }
+
+    public static class Level1 extends Level0 implements Marker1 {
+    }
+
+    public static class Level2 extends Level1 implements Marker2 {
+    }
+
+    public static class Level3 extends Level2 implements Marker3 {
+    }
+
+    public static class Level4 extends Level3 implements Marker4 {
+    }
+
+    public static class Level5 extends Level4 implements Marker1 {
+    }
+
+    public static class Level6 extends Level5 implements Marker2 {
+    }
+
+    public static class Level7 extends Level6 implements Marker3 {
+    }
+
+    public static class Level8 extends Level7 implements Marker4 {
+    }
+}
@@ -0,0 +1,81 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per PostThread delivery for the different invoker strategies: reflection, the invoker generated by the index
+ * and classes spun by LambdaMetafactory (EventBusBuilder.lambdaMethodInvokers). Each strategy uses its own subscriber
+ * class, so the JIT sees one subscriber type per bus in each benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokerBenchmark {
+    private final InvokerEvent event = new InvokerEvent();
+    private EventBus reflectionBus;
+    private EventBus generatedBus;
+    private EventBus lambdaBus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reflectionBus = EventBus.builder().build();
+        reflectionBus.register(new ReflectionSubscriber());
+        generatedBus = EventBus.builder().addIndex(new JmhEventBusIndex()).build();
+        generatedBus.register(new GeneratedSubscriber());
+        lambdaBus = EventBus.builder().lambdaMethodInvokers().build();
+        lambdaBus.register(new LambdaSubscriber());
+    }
+
+    @Benchmark
+    public void reflection() {
+        reflectionBus.post(event);
+    }
+
+    @Benchmark
+    public void generated() {
+        generatedBus.post(event);
+    }
+
+    @Benchmark
+    public void lambda() {
+        lambdaBus.post(event);
+    }
+
+    public static class InvokerEvent {
+        int count;
+    }
+
+    public static class ReflectionSubscriber {
+        public void onEvent(InvokerEvent event) {
+            event.count++;
+        }
+    }
+
+    public static class GeneratedSubscriber {
+        public void onEvent(InvokerEvent event) {
+            event.count++;
+        }
+    }
+
+    public static class LambdaSubscriber {
+        public void onEvent(InvokerEvent event) {
+            event.count++;
+        }
+    }
+}
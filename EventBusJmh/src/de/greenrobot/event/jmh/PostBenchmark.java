@@ -0,0 +1,121 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.ThreadMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Post throughput per {@link ThreadMode}, including delivery: each invocation posts a batch of events from the main
+ * thread and waits until all of them were delivered. Posting from the main thread makes BackgroundThread subscribers
+ * go through the BackgroundPoster.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostBenchmark {
+    static final int BATCH = 1000;
+
+    @Param({"PostThread", "BackgroundThread", "Async"})
+    public ThreadMode threadMode;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final Object event = new BenchmarkEvent();
+    private EventBus eventBus;
+    private Object subscriber;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = EventBus.builder().logNoSubscriberMessages(false).sendNoSubscriberEvent(false)
+                .mainThreadSupport(new CallerMainThreadSupport()).addIndex(new JmhEventBusIndex()).build();
+        switch (threadMode) {
+            case PostThread:
+                subscriber = new PostThreadSubscriber(delivered);
+                break;
+            case BackgroundThread:
+                subscriber = new BackgroundThreadSubscriber(delivered);
+                break;
+            case Async:
+                subscriber = new AsyncSubscriber(delivered);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported thread mode: " + threadMode);
+        }
+        eventBus.register(subscriber);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.unregister(subscriber);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void post() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(event);
+        }
+        expected += BATCH;
+        while (delivered.get() < expected) {
+            Thread.yield();
+        }
+    }
+
+    public static class BenchmarkEvent {
+    }
+
+    public static class PostThreadSubscriber {
+        private final AtomicLong delivered;
+
+        public PostThreadSubscriber(AtomicLong delivered) {
+            this.delivered = delivered;
+        }
+
+        public void onEvent(BenchmarkEvent event) {
+            delivered.incrementAndGet();
+        }
+    }
+
+    public static class BackgroundThreadSubscriber {
+        private final AtomicLong delivered;
+
+        public BackgroundThreadSubscriber(AtomicLong delivered) {
+            this.delivered = delivered;
+        }
+
+        public void onEventBackgroundThread(BenchmarkEvent event) {
+            delivered.incrementAndGet();
+        }
+    }
+
+    public static class AsyncSubscriber {
+        private final AtomicLong delivered;
+
+        public AsyncSubscriber(AtomicLong delivered) {
+            this.delivered = delivered;
+        }
+
+        public void onEventAsync(BenchmarkEvent event) {
+            delivered.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of concurrent posting to a shared bus. Run with different thread counts to compare, e.g.
+ * gradle jmh -Pjmh="PostScalingBenchmark.post -t 1" and -t 2, 4, 8. The group benchmark posts from 3 threads while a
+ * fourth thread keeps registering and unregistering another subscriber.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostScalingBenchmark {
+    private final ScalingEvent event = new ScalingEvent();
+    private final ChurnSubscriber churnSubscriber = new ChurnSubscriber();
+    private EventBus eventBus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).build();
+        eventBus.register(new ScalingSubscriber());
+    }
+
+    @Benchmark
+    public void post() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Group("postWhileRegistering")
+    @GroupThreads(3)
+    public void postWithChurn() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Group("postWhileRegistering")
+    @GroupThreads(1)
+    public void registerChurn() {
+        eventBus.register(churnSubscriber);
+        eventBus.unregister(churnSubscriber);
+    }
+
+    public static class ScalingEvent {
+    }
+
+    public static class ScalingSubscriber {
+        public void onEvent(ScalingEvent event) {
+        }
+    }
+
+    public static class ChurnSubscriber {
+        public void onEvent(ScalingEvent event) {
+        }
+    }
+}
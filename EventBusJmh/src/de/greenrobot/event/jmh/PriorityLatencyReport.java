@@ -0,0 +1,134 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.EventBusBuilder;
+import de.greenrobot.event.JvmMainThreadSupport;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the queue latency of MainThread deliveries per subscriber priority while the main thread is saturated, with
+ * and without priority lanes. A burst of events is posted to three subscribers with priorities 1, 0 and -1, which take
+ * about 20 microseconds per event. Fails (exit code 1) if, with priority lanes, the p99 latency of priority 1 is not
+ * below the one of priority -1, or if priority -1 starves: it must get at least half of its fair share of deliveries
+ * given the starvation limit before priority 1 has drained its backlog. Run by "gradle checkPriorityLatency", which is
+ * part of "gradle check".
+ */
+public class PriorityLatencyReport {
+    private static final int EVENTS = 5000;
+    private static final long WORK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final int STARVATION_LIMIT = 8;
+
+    public static void main(String[] args) throws InterruptedException {
+        boolean ok = true;
+        for (int round = 0; round < 2; round++) {
+            // First round warms up
+            boolean check = round == 1;
+            run(0, check);
+            ok = run(STARVATION_LIMIT, check);
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /** @return false if checked with priority lanes and the checks failed */
+    private static boolean run(int starvationLimit, boolean check) throws InterruptedException {
+        EventBusBuilder builder = EventBus.builder().addIndex(new JmhEventBusIndex())
+                .mainThreadSupport(new JvmMainThreadSupport());
+        if (starvationLimit > 0) {
+            builder.priorityLanes(starvationLimit);
+        }
+        EventBus eventBus = builder.build();
+        CountDownLatch done = new CountDownLatch(EVENTS * 3);
+        DeliveryCounter counter = new DeliveryCounter();
+        LatencySubscriber[] subscribers = new LatencySubscriber[3];
+        for (int i = 0; i < 3; i++) {
+            subscribers[i] = new LatencySubscriber(done, counter);
+            eventBus.register(subscribers[i], 1 - i);
+        }
+        for (int i = 0; i < EVENTS; i++) {
+            eventBus.post(new TimedEvent(System.nanoTime()));
+        }
+        done.await();
+        if (!check) {
+            return true;
+        }
+        System.out.println(starvationLimit > 0 ? "Priority lanes, starvation limit " + starvationLimit :
+                "Single queue");
+        // Deliveries of priority -1 while priority 1 still had a backlog, before sorting the latencies
+        LatencySubscriber high = subscribers[0];
+        LatencySubscriber low = subscribers[2];
+        int highLastSequence = high.sequences[EVENTS - 1];
+        int lowDuringHighBacklog = 0;
+        while (lowDuringHighBacklog < EVENTS && low.sequences[lowDuringHighBacklog] < highLastSequence) {
+            lowDuringHighBacklog++;
+        }
+        for (int i = 0; i < 3; i++) {
+            long[] latencies = subscribers[i].latencies;
+            Arrays.sort(latencies);
+            System.out.println(String.format("  priority %2d: p50 %6.2f ms, p99 %6.2f ms, max %6.2f ms", 1 - i,
+                    latencies[EVENTS / 2] / 1e6, getP99(latencies) / 1e6, latencies[EVENTS - 1] / 1e6));
+        }
+        System.out.println("  priority -1 deliveries while priority 1 had a backlog: " + lowDuringHighBacklog);
+        if (starvationLimit == 0) {
+            return true;
+        }
+        boolean ok = true;
+        if (getP99(high.latencies) >= getP99(low.latencies)) {
+            System.err.println("Priority 1 p99 latency is not below priority -1 with priority lanes");
+            ok = false;
+        }
+        // The low lane is served once per starvation limit posts of higher lanes, which are at least 1 per event
+        int fairShare = EVENTS / starvationLimit;
+        if (lowDuringHighBacklog < fairShare / 2) {
+            System.err.println("Priority -1 starves: " + lowDuringHighBacklog + " deliveries, expected at least "
+                    + fairShare / 2);
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static long getP99(long[] sortedLatencies) {
+        return sortedLatencies[EVENTS * 99 / 100];
+    }
+
+    public static class TimedEvent {
+        final long postedNanos;
+
+        TimedEvent(long postedNanos) {
+            this.postedNanos = postedNanos;
+        }
+    }
+
+    /** Only used by the main thread. */
+    static class DeliveryCounter {
+        int count;
+    }
+
+    public static class LatencySubscriber {
+        final long[] latencies = new long[EVENTS];
+        /** Position of each delivery among the deliveries to all subscribers. */
+        final int[] sequences = new int[EVENTS];
+        final CountDownLatch done;
+        final DeliveryCounter counter;
+        int count;
+
+        LatencySubscriber(CountDownLatch done, DeliveryCounter counter) {
+            this.done = done;
+            this.counter = counter;
+        }
+
+        public void onEventMainThread(TimedEvent event) {
+            long start = System.nanoTime();
+            sequences[count] = counter.count++;
+            latencies[count++] = start - event.postedNanos;
+            while (System.nanoTime() - start < WORK_NANOS) {
+                // Simulate work
+            }
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers and unregisters many subscribers of the same class, all subscribing to the same event types, one by one or
+ * in bulk using registerAll.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterBenchmark {
+    @Param({"10", "100", "1000", "5000"})
+    public int subscriberCount;
+
+    private EventBus eventBus;
+    private ChurnSubscriber[] subscribers;
+    private List<ChurnSubscriber> subscriberList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = EventBus.builder().addIndex(new JmhEventBusIndex()).build();
+        subscribers = new ChurnSubscriber[subscriberCount];
+        for (int i = 0; i < subscriberCount; i++) {
+            subscribers[i] = new ChurnSubscriber();
+        }
+        subscriberList = Arrays.asList(subscribers);
+    }
+
+    @Benchmark
+    public void registerUnregister() {
+        for (ChurnSubscriber subscriber : subscribers) {
+            eventBus.register(subscriber);
+        }
+        for (ChurnSubscriber subscriber : subscribers) {
+            eventBus.unregister(subscriber);
+        }
+    }
+
+    @Benchmark
+    public void registerAllUnregister() {
+        eventBus.registerAll(subscriberList);
+        for (ChurnSubscriber subscriber : subscribers) {
+            eventBus.unregister(subscriber);
+        }
+    }
+
+    public static class ChurnSubscriber {
+        public void onEvent(String event) {
+        }
+
+        public void onEventBackgroundThread(Integer event) {
+        }
+    }
+}
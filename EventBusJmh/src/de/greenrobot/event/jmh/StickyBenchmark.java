@@ -0,0 +1,75 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.jmh.generated.GeneratedSubscribers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Posting sticky events and registering for sticky events with a number of other sticky events present. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StickyBenchmark {
+    /** Other sticky events kept by the bus; registerSticky iterates all of them with event inheritance. */
+    @Param({"0", "100"})
+    public int otherStickyEvents;
+
+    private final StickyEvent event = new StickyEvent();
+    private final StickySubscriber subscriber = new StickySubscriber();
+    private EventBus eventBus;
+    private EventBus registerBus;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        eventBus = EventBus.builder().logNoSubscriberMessages(false).sendNoSubscriberEvent(false)
+                .addIndex(new JmhEventBusIndex()).build();
+        eventBus.register(new StickySubscriber());
+        registerBus = EventBus.builder().logNoSubscriberMessages(false).sendNoSubscriberEvent(false)
+                .addIndex(new JmhEventBusIndex()).build();
+        registerBus.postSticky(event);
+        // Distinct event classes are needed, because only the latest sticky event per class is kept; the generated
+        // classes serve that purpose
+        Class<?>[] classes = GeneratedSubscribers.CLASSES;
+        for (int i = 0; i < otherStickyEvents; i++) {
+            Object other = classes[i % classes.length].newInstance();
+            eventBus.postSticky(other);
+            registerBus.postSticky(other);
+        }
+    }
+
+    @Benchmark
+    public void postSticky() {
+        eventBus.postSticky(event);
+    }
+
+    @Benchmark
+    public void registerSticky() {
+        registerBus.registerSticky(subscriber);
+        registerBus.unregister(subscriber);
+    }
+
+    public static class StickyEvent {
+        int count;
+    }
+
+    public static class StickySubscriber {
+        public void onEvent(StickyEvent event) {
+            event.count++;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.greenrobot.event.jmh;
+
+import de.greenrobot.event.EventBus;
+import de.greenrobot.event.EventBusBuilder;
+import de.greenrobot.event.jmh.generated.GeneratedSubscribers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the first registration of each of the generated subscriber classes, comparing the generated index
+ * with reflection. Each invocation builds a new bus, which caches subscriber methods per instance, and clears the
+ * shared event type cache. Each subscriber is unregistered right away, so the benchmark is not dominated by the
+ * growing subscription lists (all generated classes subscribe to the same events). Note that the JVM caches
+ * reflection data internally, so reflection is cheaper here than during a real cold start (especially on Android).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriberIndexBenchmark {
+    @Param({"reflection", "index"})
+    public String lookup;
+
+    private Object[] subscribers;
+
+    @Setup(Level.Trial)
+    public void setUpSubscribers() throws Exception {
+        Class<?>[] classes = GeneratedSubscribers.CLASSES;
+        subscribers = new Object[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            subscribers[i] = classes[i].newInstance();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCaches() {
+        EventBus.clearCaches();
+    }
+
+    @Benchmark
+    public EventBus registerFirstTime() {
+        EventBusBuilder builder = EventBus.builder();
+        if ("index".equals(lookup)) {
+            builder.addIndex(new JmhEventBusIndex());
+        }
+        EventBus eventBus = builder.build();
+        for (Object subscriber : subscribers) {
+            eventBus.register(subscriber);
+            eventBus.unregister(subscriber);
+        }
+        return eventBus;
+    }
+}